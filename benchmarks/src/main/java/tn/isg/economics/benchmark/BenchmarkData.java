@@ -0,0 +1,48 @@
+package tn.isg.economics.benchmark;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.util.DataGenerator;
+import tn.isg.economics.util.StreamingDataGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+// Shared inputs: every benchmark draws the same seeded rows, so results stay comparable between runs
+final class BenchmarkData {
+    static final long SEED = 42L;
+    static final LocalDate START_DATE = LocalDate.of(2023, 1, 1);
+    static final LocalDate END_DATE = LocalDate.of(2024, 12, 31);
+    // Heap for the forked JVMs; the 10M datasets and their exports need a few GB
+    static final String MIN_HEAP = "-Xms4g";
+    static final String MAX_HEAP = "-Xmx8g";
+
+    private BenchmarkData() {
+    }
+
+    static List<ExportData> exports(int size) {
+        return DataGenerator.generateExports(SEED, size, START_DATE, END_DATE);
+    }
+
+    // Same rows as exports(size), written as CSV without materializing them
+    static Path csvFile(int size) throws IOException {
+        Path file = Files.createTempFile("benchmark-exports-" + size + "-", ".csv");
+        StreamingDataGenerator.generate(file, StreamingDataGenerator.Format.CSV, SEED, size, 65_536,
+                START_DATE, END_DATE, null);
+        return file;
+    }
+
+    // The loaders and exporters report every call on System.out; muted so printing is not measured
+    static PrintStream muteConsole() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+
+    static void restoreConsole(PrintStream original) {
+        System.setOut(original);
+    }
+}
@@ -0,0 +1,67 @@
+package tn.isg.economics.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.util.DataExporter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// DataExporter CSV and JSON output; every call overwrites the same temp file
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.MIN_HEAP, BenchmarkData.MAX_HEAP})
+public class ExportBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private List<ExportData> exports;
+    private Path directory;
+    private String csvFile;
+    private String jsonFile;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        exports = BenchmarkData.exports(size);
+        directory = Files.createTempDirectory("benchmark-export-");
+        csvFile = directory.resolve("exports.csv").toString();
+        jsonFile = directory.resolve("exports.json").toString();
+        console = BenchmarkData.muteConsole();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.restoreConsole(console);
+        Files.deleteIfExists(Path.of(csvFile));
+        Files.deleteIfExists(Path.of(jsonFile));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void exportToCSV() throws IOException {
+        DataExporter.exportToCSV(exports, csvFile);
+    }
+
+    @Benchmark
+    public void exportToJSON() throws IOException {
+        DataExporter.exportToJSON(exports, jsonFile);
+    }
+}
@@ -0,0 +1,64 @@
+package tn.isg.economics.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.repository.InMemoryDataRepository;
+import tn.isg.economics.util.CSVDataLoader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// CSV parsing and bulk saves into the in-memory repository
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.MIN_HEAP, BenchmarkData.MAX_HEAP})
+public class IngestionBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private Path csvFile;
+    private List<ExportData> exports;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        csvFile = BenchmarkData.csvFile(size);
+        exports = BenchmarkData.exports(size);
+        console = BenchmarkData.muteConsole();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.restoreConsole(console);
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public List<ExportData> loadFromCSV() throws IOException {
+        return CSVDataLoader.loadFromCSV(csvFile.toString());
+    }
+
+    @Benchmark
+    public InMemoryDataRepository saveAllExportData() {
+        InMemoryDataRepository repository = new InMemoryDataRepository();
+        repository.saveAllExportData(exports);
+        return repository;
+    }
+}
@@ -0,0 +1,55 @@
+package tn.isg.economics.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.AsyncLogger;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+// Cost of AsyncLogger calls when the level is disabled, against an empty baseline; the disabled
+// calls should match the baseline and allocate nothing (see gc.alloc.rate.norm)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(LoggingBenchmark.class);
+    private ProductType product = ProductType.OLIVE_OIL;
+    private Logger delegate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Held so the level survives LogManager's weak references
+        delegate = Logger.getLogger(LoggingBenchmark.class.getName());
+        delegate.setLevel(java.util.logging.Level.OFF);
+    }
+
+    @Benchmark
+    public ProductType baseline() {
+        return product;
+    }
+
+    @Benchmark
+    public ProductType disabledInfoSupplier() {
+        logger.info(() -> "Generating prediction for: " + product);
+        return product;
+    }
+
+    @Benchmark
+    public ProductType disabledSampled() {
+        logger.sampled("benchmark", java.util.logging.Level.INFO, () -> "Generating prediction for: " + product);
+        return product;
+    }
+}
@@ -0,0 +1,60 @@
+package tn.isg.economics.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.isg.economics.ai.BaseAIModel;
+import tn.isg.economics.ai.DJLPredictionService;
+import tn.isg.economics.ai.ONNXRuntimeService;
+import tn.isg.economics.exception.ModelException;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// predictBatch for both models; loading happens once per trial and is not measured
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.MIN_HEAP, BenchmarkData.MAX_HEAP})
+public class PredictionBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    @Param({"DJL", "ONNX"})
+    private String model;
+    private BaseAIModel service;
+    private List<ExportData> exports;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ModelException {
+        service = switch (model) {
+            case "DJL" -> new DJLPredictionService();
+            case "ONNX" -> new ONNXRuntimeService();
+            default -> throw new IllegalArgumentException("Unknown model: " + model);
+        };
+        service.loadModel();
+        exports = BenchmarkData.exports(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.unloadModel();
+    }
+
+    @Benchmark
+    public List<PricePrediction> predictBatch() {
+        return service.predictBatch(exports);
+    }
+}
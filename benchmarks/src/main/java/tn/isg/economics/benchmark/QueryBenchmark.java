@@ -0,0 +1,96 @@
+package tn.isg.economics.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.repository.InMemoryDataRepository;
+import tn.isg.economics.util.StatisticsCalculator;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// InMemoryDataRepository finders; range bounds are taken from the data so each range matches ~10% of rows
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.MIN_HEAP, BenchmarkData.MAX_HEAP})
+public class QueryBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private InMemoryDataRepository repository;
+    private String country;
+    private LocalDate date;
+    private LocalDate rangeStart;
+    private LocalDate rangeEnd;
+    private double minPrice;
+    private double maxPrice;
+    private double minVolume;
+    private double maxVolume;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ExportData> exports = BenchmarkData.exports(size);
+        repository = new InMemoryDataRepository();
+        repository.saveAllExportData(exports);
+        List<ExportData> sample = exports.subList(0, Math.min(exports.size(), 10_000));
+        List<Double> prices = sample.stream().map(ExportData::pricePerTon).toList();
+        List<Double> volumes = sample.stream().map(ExportData::volume).toList();
+        minPrice = StatisticsCalculator.calculatePercentile(prices, 45);
+        maxPrice = StatisticsCalculator.calculatePercentile(prices, 55);
+        minVolume = StatisticsCalculator.calculatePercentile(volumes, 45);
+        maxVolume = StatisticsCalculator.calculatePercentile(volumes, 55);
+        country = exports.get(0).destinationCountry();
+        date = exports.get(exports.size() / 2).date();
+        rangeStart = BenchmarkData.START_DATE.plusMonths(12);
+        rangeEnd = rangeStart.plusMonths(2).plusDays(12);
+    }
+
+    @Benchmark
+    public List<ExportData> findByProduct() {
+        return repository.findByProduct(ProductType.OLIVE_OIL);
+    }
+
+    @Benchmark
+    public List<ExportData> findByCountry() {
+        return repository.findByCountry(country);
+    }
+
+    @Benchmark
+    public List<ExportData> findByMarketIndicator() {
+        return repository.findByMarketIndicator(MarketIndicator.VOLATILE);
+    }
+
+    @Benchmark
+    public List<ExportData> findByPriceRange() {
+        return repository.findByPriceRange(minPrice, maxPrice);
+    }
+
+    @Benchmark
+    public List<ExportData> findByVolumeRange() {
+        return repository.findByVolumeRange(minVolume, maxVolume);
+    }
+
+    @Benchmark
+    public List<ExportData> findByDate() {
+        return repository.findByDate(date);
+    }
+
+    @Benchmark
+    public List<ExportData> getExportDataByDateRange() {
+        return repository.getExportDataByDateRange(rangeStart, rangeEnd);
+    }
+}
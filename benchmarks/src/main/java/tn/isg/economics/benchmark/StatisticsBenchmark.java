@@ -0,0 +1,79 @@
+package tn.isg.economics.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.PriceStatistics;
+import tn.isg.economics.util.StatisticsCalculator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Summary statistics and the group-by aggregations over a materialized dataset
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.MIN_HEAP, BenchmarkData.MAX_HEAP})
+public class StatisticsBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private List<ExportData> exports;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        exports = BenchmarkData.exports(size);
+    }
+
+    @Benchmark
+    public PriceStatistics getPriceStatistics() {
+        return StatisticsCalculator.getPriceStatistics(exports);
+    }
+
+    @Benchmark
+    public Map<ProductType, Double> getAveragePriceByProduct() {
+        return StatisticsCalculator.getAveragePriceByProduct(exports);
+    }
+
+    @Benchmark
+    public Map<String, Double> getTotalVolumeByCountry() {
+        return StatisticsCalculator.getTotalVolumeByCountry(exports);
+    }
+
+    @Benchmark
+    public Map<ProductType, Double> getTotalVolumeByProduct() {
+        return StatisticsCalculator.getTotalVolumeByProduct(exports);
+    }
+
+    @Benchmark
+    public Map<ProductType, Double> getTotalRevenueByProduct() {
+        return StatisticsCalculator.getTotalRevenueByProduct(exports);
+    }
+
+    @Benchmark
+    public Map<ProductType, Double> getAverageVolumeByProduct() {
+        return StatisticsCalculator.getAverageVolumeByProduct(exports);
+    }
+
+    @Benchmark
+    public Map<ProductType, Long> getExportCountByProduct() {
+        return StatisticsCalculator.getExportCountByProduct(exports);
+    }
+
+    @Benchmark
+    public Map<ProductType, Double> getPriceRangeByProduct() {
+        return StatisticsCalculator.getPriceRangeByProduct(exports);
+    }
+}
@@ -1,22 +1,42 @@
 package tn.isg.economics;
 
 import tn.isg.economics.ai.DJLPredictionService;
-import tn.isg.economics.ai.ONNXRuntimeService;
 import tn.isg.economics.ai.LLMReportService;
+import tn.isg.economics.ai.ReportCache;
+import tn.isg.economics.ai.ReportTemplate;
 import tn.isg.economics.model.*;
+import tn.isg.economics.repository.LogStructuredDataRepository;
 import tn.isg.economics.service.EconomicIntelligenceService;
+import tn.isg.economics.service.IngestionDaemon;
+import tn.isg.economics.service.IntelligenceBriefing;
+import tn.isg.economics.service.StartupOrchestrator;
+import tn.isg.economics.service.StartupReport;
 import tn.isg.economics.exception.ModelException;
 import tn.isg.economics.exception.PredictionException;
 import tn.isg.economics.util.*;
 import tn.isg.economics.util.DataExporter;
 import tn.isg.economics.util.CSVDataLoader;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 public class Main {
+    // Fixed so that --generate with the same seed reproduces the same file on any day
+    private static final LocalDate GENERATE_START_DATE = LocalDate.of(2023, 1, 1);
+    private static final LocalDate GENERATE_END_DATE = LocalDate.of(2024, 12, 31);
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--watch")) {
+            runIngestionDaemon(Path.of(args.length > 1 ? args[1] : "data/incoming"));
+            return;
+        }
+        if (args.length > 2 && args[0].equals("--generate")) {
+            generateDataset(args);
+            return;
+        }
         System.out.println("╔═══════════════════════════════════════════════════════════╗");
         System.out.println("║   Tunisian Agricultural Export AI Intelligence System    ║");
         System.out.println("║              Powered by Java 25 + AI/ML                  ║");
@@ -25,17 +45,18 @@ public class Main {
         try {
             System.out.println(">>> STEP 1: Initializing AI Services...");
             System.out.println();
-            System.out.println("Initializing DJL Prediction Service...");
+            System.out.println("Loading models, starting LLM client and warming up...");
             var djlPredictionService = new DJLPredictionService();
-            djlPredictionService.loadModel();
+            var startup = new StartupOrchestrator(() -> new LLMReportService(true, ReportCache.defaultCache()))
+                    .register(djlPredictionService);
+            StartupReport startupReport = startup.start();
+            var llmReportService = startup.getReportService();
             System.out.println("✓ DJL Service ready!");
-            System.out.println();
-            System.out.println("Initializing LLM Report Service...");
-            var llmReportService = new LLMReportService(true);
             System.out.println("✓ LLM Service initialized!");
             System.out.println("  Model: " + llmReportService.getModelInfo());
             System.out.println("  Status: " + (llmReportService.isLLMReady() ? "Ready" : "Fallback Mode"));
             System.out.println();
+            System.out.println(startupReport.toFormattedString());
             System.out.println(">>> STEP 2: Creating Economic Intelligence Service...");
             var intelligenceService = new EconomicIntelligenceService(
                     djlPredictionService,
@@ -143,18 +164,21 @@ public class Main {
                 );
             }
             System.out.println();
-            System.out.println(">>> STEP 9: Generating AI Market Intelligence Report...");
+            System.out.println(">>> STEP 9: Generating AI Market Intelligence Report and Executive Summary...");
+            System.out.println();
+            IntelligenceBriefing briefing = intelligenceService.generateBriefing(
+                    predictions, Duration.ofSeconds(60), Duration.ofSeconds(90));
+            System.out.println("✓ Briefing ready in " + briefing.elapsedMillis() + " ms"
+                    + (briefing.isComplete() ? "" : " (partly from fallback after deadline)"));
             System.out.println();
-            String marketReport = intelligenceService.generateIntelligenceReport(predictions);
+            String marketReport = briefing.report();
             System.out.println("╔════════════════════════════════════════════════════════════╗");
             System.out.println("║              AI-GENERATED MARKET REPORT                    ║");
             System.out.println("╚════════════════════════════════════════════════════════════╝");
             System.out.println();
             System.out.println(marketReport);
             System.out.println();
-            System.out.println(">>> STEP 10: Generating Executive Summary...");
-            System.out.println();
-            String summary = intelligenceService.generateSummary(predictions);
+            String summary = briefing.summary();
             System.out.println("╔════════════════════════════════════════════════════════════╗");
             System.out.println("║                  EXECUTIVE SUMMARY                         ║");
             System.out.println("╚════════════════════════════════════════════════════════════╝");
@@ -162,7 +186,7 @@ public class Main {
             System.out.println(summary);
             System.out.println();
             System.out.println(">>> Cleaning up resources...");
-            djlPredictionService.unloadModel();
+            startup.unloadAll();
             System.out.println("✓ Models unloaded");
             System.out.println();
             System.out.println("╔════════════════════════════════════════════════════════════╗");
@@ -177,6 +201,8 @@ public class Main {
                 System.out.println("✓ Loaded " + loadedData.size() + " records from CSV");
                 List<ExportData> preview = CSVDataLoader.previewCSV("data/generated_exports.csv", 5);
                 System.out.println("✓ Preview of first 5 records loaded");
+                ReportTemplate.fallbackMarketReport().render(predictions, Path.of("data", "batch_report.txt"));
+                System.out.println("✓ Batch report written to data/batch_report.txt");
             } catch (IOException e) {
                 System.err.println("CSV Error: " + e.getMessage());
             }
@@ -192,4 +218,61 @@ public class Main {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    // Daemon mode: ingest CSV drops from a directory until the process is stopped
+    private static void runIngestionDaemon(Path directory) {
+        try {
+            var djlPredictionService = new DJLPredictionService();
+            var startup = new StartupOrchestrator(() -> new LLMReportService(true, ReportCache.defaultCache()))
+                    .register(djlPredictionService);
+            System.out.println(startup.start().toFormattedString());
+            var intelligenceService = new EconomicIntelligenceService(djlPredictionService, startup.getReportService());
+            // Durable sink: the checkpoint only skips rows that survive a restart
+            var repository = new LogStructuredDataRepository(Path.of("data", "repository"));
+            var daemon = new IngestionDaemon(directory, Path.of("data", "ingestion.checkpoint"),
+                    repository, intelligenceService);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    daemon.close();
+                    repository.close();
+                    System.out.println(daemon.getStatistics());
+                    startup.unloadAll();
+                } catch (IOException e) {
+                    System.err.println("Error stopping ingestion: " + e.getMessage());
+                }
+            }));
+            daemon.start();
+            System.out.println("✓ Watching " + directory.toAbsolutePath() + " (Ctrl+C to stop)");
+            while (daemon.isRunning()) {
+                Thread.sleep(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("❌ Ingestion Error: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // --generate <rows> <file> [csv|ndjson|binary] [seed] [startDate endDate]
+    private static void generateDataset(String[] args) {
+        try {
+            long rows = Long.parseLong(args[1]);
+            Path file = Path.of(args[2]);
+            var format = args.length > 3
+                    ? StreamingDataGenerator.Format.valueOf(args[3].toUpperCase(java.util.Locale.ROOT))
+                    : StreamingDataGenerator.Format.CSV;
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+            LocalDate startDate = args.length > 6 ? LocalDate.parse(args[5]) : GENERATE_START_DATE;
+            LocalDate endDate = args.length > 6 ? LocalDate.parse(args[6]) : GENERATE_END_DATE;
+            System.out.println("Generating " + rows + " records to " + file + " (" + format + ")...");
+            var report = StreamingDataGenerator.generate(file, format, seed, rows,
+                    startDate, endDate);
+            System.out.println(report.toFormattedString());
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            System.err.println("❌ Invalid arguments: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("❌ Generation Error: " + e.getMessage());
+        }
+    }
+}
@@ -6,11 +6,11 @@ import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.service.PredictionService;
 import tn.isg.economics.exception.ModelException;
 import java.util.List;
-import java.util.logging.Logger;
+import tn.isg.economics.util.AsyncLogger;
 
 @AIService(provider = "Base", version = "1.0")
 public abstract class BaseAIModel implements PredictionService {
-    protected static final Logger logger = Logger.getLogger(BaseAIModel.class.getName());
+    protected static final AsyncLogger logger = AsyncLogger.getLogger(BaseAIModel.class);
     protected String modelName;
     protected boolean isLoaded = false;
 
@@ -30,7 +30,7 @@ public abstract class BaseAIModel implements PredictionService {
         if (!isLoaded) {
             throw new IllegalStateException("Model not loaded. Call loadModel() first.");
         }
-        logger.fine("Input validated successfully for: " + input.productType());
+        logger.fine(() -> "Input validated successfully for: " + input.productType());
     }
 
     @Override
@@ -0,0 +1,71 @@
+package tn.isg.economics.ai;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// CLOSED -> OPEN after failureThreshold consecutive failures; after openDuration a single
+// HALF_OPEN probe is let through and its outcome closes or re-opens the circuit
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAt.get() >= openNanos) {
+            state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        if (state.get() == State.HALF_OPEN && probeInFlight.compareAndSet(false, true)) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+        probeInFlight.set(false);
+    }
+
+    public void recordFailure() {
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.nanoTime());
+            state.set(State.OPEN);
+        }
+        probeInFlight.set(false);
+    }
+
+    // Outcome unknown (e.g. the caller gave up): free the probe slot without judging the backend
+    public void recordCancelled() {
+        probeInFlight.set(false);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
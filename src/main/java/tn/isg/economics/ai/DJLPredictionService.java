@@ -9,6 +9,7 @@ import tn.isg.economics.exception.ModelException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Random;
+import java.util.logging.Level;
 
 @AIService(provider = "DJL", version = "0.30.0")
 public class DJLPredictionService extends BaseAIModel {
@@ -38,7 +39,7 @@ public class DJLPredictionService extends BaseAIModel {
     public PricePrediction predictPrice(ExportData input) {
         validateInput(input);
         try {
-            logger.info("Generating prediction for: " + input.productType());
+            logger.sampled("djl.predict", Level.INFO, () -> "Generating prediction for: " + input.productType());
 
             double currentPrice = input.pricePerTon();
             double variation = (random.nextDouble() - 0.5) * 0.2;
@@ -58,8 +59,10 @@ public class DJLPredictionService extends BaseAIModel {
             predictedPrice = Math.round(predictedPrice * 100.0) / 100.0;
             PredictionStatus status = confidence >= 0.7 ?
                     PredictionStatus.COMPLETED : PredictionStatus.LOW_CONFIDENCE;
-            logger.info(String.format("Prediction completed: %.2f TND (confidence: %.2f%%)",
-                    predictedPrice, confidence * 100));
+            double loggedPrice = predictedPrice;
+            double loggedConfidence = confidence;
+            logger.sampled("djl.completed", Level.INFO, () -> String.format(
+                    "Prediction completed: %.2f TND (confidence: %.2f%%)", loggedPrice, loggedConfidence * 100));
             return new PricePrediction(
                     LocalDate.now().plusDays(30), // Predict 30 days ahead
                     input.productType(),
@@ -70,7 +73,7 @@ public class DJLPredictionService extends BaseAIModel {
             );
 
         } catch (Exception e) {
-            logger.severe("Prediction failed: " + e.getMessage());
+            logger.sampled("djl.failed", Level.SEVERE, () -> "Prediction failed: " + e.getMessage());
             return new PricePrediction(
                     LocalDate.now(),
                     input.productType(),
@@ -84,7 +87,7 @@ public class DJLPredictionService extends BaseAIModel {
 
     @Override
     public List<PricePrediction> predictBatch(List<ExportData> inputs) {
-        logger.info("Starting batch prediction for " + inputs.size() + " items");
+        logger.info(() -> "Starting batch prediction for " + inputs.size() + " items");
 
         return inputs.stream()
                 .map(this::predictPrice)
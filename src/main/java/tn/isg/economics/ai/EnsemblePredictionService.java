@@ -0,0 +1,235 @@
+package tn.isg.economics.ai;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.service.PredictionService;
+import tn.isg.economics.util.AsyncLogger;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class EnsemblePredictionService implements PredictionService, AutoCloseable {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(EnsemblePredictionService.class);
+    private static final double COMPLETED_THRESHOLD = 0.7;
+    private final List<Member> members = new ArrayList<>();
+    private final Duration deadline;
+    private final Duration hedgeDelay;
+    private final int quorum;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ensemble-", 0).factory());
+    private final AtomicLong deadlineMisses = new AtomicLong();
+    private final AtomicLong hedgesIssued = new AtomicLong();
+
+    public EnsemblePredictionService(List<? extends BaseAIModel> models, Duration deadline) {
+        this(models, deadline, null, models.size());
+    }
+
+    // hedgeDelay == null disables hedging; quorum < models.size() returns as soon as that many answered
+    public EnsemblePredictionService(List<? extends BaseAIModel> models, Duration deadline,
+                                     Duration hedgeDelay, int quorum) {
+        if (models == null || models.isEmpty()) {
+            throw new IllegalArgumentException("Ensemble needs at least one model");
+        }
+        if (deadline == null || deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException("Deadline must be positive");
+        }
+        if (quorum < 1 || quorum > models.size()) {
+            throw new IllegalArgumentException("Quorum must be between 1 and " + models.size());
+        }
+        models.forEach(model -> members.add(new Member(model, null)));
+        this.deadline = deadline;
+        this.hedgeDelay = hedgeDelay;
+        this.quorum = quorum;
+    }
+
+    public EnsemblePredictionService withSpare(BaseAIModel primary, BaseAIModel spare) {
+        for (int i = 0; i < members.size(); i++) {
+            if (members.get(i).primary() == primary) {
+                members.set(i, new Member(primary, spare));
+                return this;
+            }
+        }
+        throw new IllegalArgumentException("Model is not part of the ensemble: " + primary.getModelName());
+    }
+
+    @Override
+    public PricePrediction predictPrice(ExportData input) {
+        return predictBatch(List.of(input)).get(0);
+    }
+
+    @Override
+    public List<PricePrediction> predictBatch(List<ExportData> inputs) {
+        if (inputs == null || inputs.isEmpty()) {
+            return List.of();
+        }
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        BlockingQueue<Response> responses = new LinkedBlockingQueue<>();
+        for (Member member : members) {
+            call(member, inputs).whenComplete((predictions, error) ->
+                    responses.add(new Response(member, predictions, error)));
+        }
+        List<Response> answered = new ArrayList<>();
+        int received = 0;
+        try {
+            while (received < members.size() && answered.size() < quorum) {
+                Response response = responses.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (response == null) {
+                    break;
+                }
+                received++;
+                if (response.error() == null && response.predictions().size() == inputs.size()) {
+                    answered.add(response);
+                } else {
+                    logger.warning(() -> "Ensemble member " + response.member().primary().getModelName() + " failed: "
+                            + (response.error() != null ? response.error().getMessage() : "incomplete batch"));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (received < members.size() && answered.size() < quorum) {
+            deadlineMisses.incrementAndGet();
+            logger.warning(() -> "Ensemble deadline of " + deadline.toMillis() + " ms reached with "
+                    + answered.size() + "/" + members.size() + " model(s) answered");
+        }
+        return combine(inputs, answered);
+    }
+
+    private CompletableFuture<List<PricePrediction>> call(Member member, List<ExportData> inputs) {
+        CompletableFuture<List<PricePrediction>> primary =
+                CompletableFuture.supplyAsync(() -> member.primary().predictBatch(inputs), executor);
+        if (member.spare() == null || hedgeDelay == null) {
+            return primary;
+        }
+        CompletableFuture<List<PricePrediction>> first = new CompletableFuture<>();
+        // Attempts started and not yet failed; the member fails only when the last one does
+        AtomicInteger outstanding = new AtomicInteger(1);
+        Consumer<Throwable> attemptFailed = error -> {
+            if (outstanding.decrementAndGet() == 0) {
+                first.completeExceptionally(error);
+            }
+        };
+        AtomicBoolean hedged = new AtomicBoolean();
+        Runnable hedge = () -> {
+            if (first.isDone()) {
+                return;
+            }
+            // Counted before the race so a concurrent failure of the other attempt cannot reach zero first
+            outstanding.incrementAndGet();
+            if (!hedged.compareAndSet(false, true)) {
+                outstanding.decrementAndGet();
+                return;
+            }
+            hedgesIssued.incrementAndGet();
+            CompletableFuture.supplyAsync(() -> member.spare().predictBatch(inputs), executor)
+                    .whenComplete((predictions, error) -> {
+                        if (error == null) {
+                            first.complete(predictions);
+                        } else {
+                            attemptFailed.accept(error);
+                        }
+                    });
+        };
+        primary.whenComplete((predictions, error) -> {
+            if (error == null) {
+                first.complete(predictions);
+            } else {
+                hedge.run();
+                attemptFailed.accept(error);
+            }
+        });
+        CompletableFuture.delayedExecutor(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS, executor).execute(hedge);
+        return first;
+    }
+
+    private List<PricePrediction> combine(List<ExportData> inputs, List<Response> answered) {
+        String modelName = answered.isEmpty() ? "Ensemble[]" : answered.stream()
+                .map(response -> response.predictions().get(0).modelName())
+                .collect(Collectors.joining("+", "Ensemble[", "]"));
+        List<PricePrediction> combined = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            double weightedPrice = 0.0;
+            double priceWeight = 0.0;
+            double weightedConfidence = 0.0;
+            double accuracyWeight = 0.0;
+            LocalDate predictionDate = null;
+            for (Response response : answered) {
+                PricePrediction prediction = response.predictions().get(i);
+                if (prediction.status() == PredictionStatus.FAILED) {
+                    continue;
+                }
+                double accuracy = response.member().primary().getModelAccuracy();
+                double weight = accuracy * prediction.confidence();
+                weightedPrice += weight * prediction.predictedPrice();
+                priceWeight += weight;
+                weightedConfidence += accuracy * prediction.confidence();
+                accuracyWeight += accuracy;
+                if (predictionDate == null) {
+                    predictionDate = prediction.predictionDate();
+                }
+            }
+            if (priceWeight == 0.0) {
+                combined.add(new PricePrediction(
+                        LocalDate.now(),
+                        inputs.get(i).productType(),
+                        0.0,
+                        0.0,
+                        modelName,
+                        PredictionStatus.FAILED
+                ));
+                continue;
+            }
+            double price = Math.round(weightedPrice / priceWeight * 100.0) / 100.0;
+            double confidence = Math.min(1.0, weightedConfidence / accuracyWeight);
+            combined.add(new PricePrediction(
+                    predictionDate,
+                    inputs.get(i).productType(),
+                    price,
+                    confidence,
+                    modelName,
+                    confidence >= COMPLETED_THRESHOLD ? PredictionStatus.COMPLETED : PredictionStatus.LOW_CONFIDENCE
+            ));
+        }
+        return combined;
+    }
+
+    @Override
+    public double getModelAccuracy() {
+        return members.stream()
+                .mapToDouble(member -> member.primary().getModelAccuracy())
+                .max()
+                .orElse(0.0);
+    }
+
+    public long getDeadlineMisses() {
+        return deadlineMisses.get();
+    }
+
+    public long getHedgesIssued() {
+        return hedgesIssued.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private record Member(BaseAIModel primary, BaseAIModel spare) {
+    }
+
+    private record Response(Member member, List<PricePrediction> predictions, Throwable error) {
+    }
+}
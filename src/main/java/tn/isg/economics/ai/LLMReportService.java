@@ -1,21 +1,59 @@
 package tn.isg.economics.ai;
 
-import dev.langchain4j.model.chat.ChatLanguageModel;
-import dev.langchain4j.model.ollama.OllamaChatModel;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import dev.langchain4j.model.output.Response;
+import tn.isg.economics.exception.ModelException;
 import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.service.ReportGenerator;
+import tn.isg.economics.util.AsyncLogger;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.logging.Logger;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 public class LLMReportService implements ReportGenerator {
-    private static final Logger logger = Logger.getLogger(LLMReportService.class.getName());
-    private ChatLanguageModel chatModel;
+    private static final AsyncLogger logger = AsyncLogger.getLogger(LLMReportService.class);
+    private static final double TEMPERATURE = 0.7;
+    private static final int DEFAULT_PROMPT_TOKENS = 1024;
+    private static final String STREAM_INTERRUPTED_NOTICE =
+            "\n\n[LLM stream interrupted - continuing with basic analysis]\n\n";
+    private static final ReportTemplate FALLBACK_REPORT = ReportTemplate.fallbackMarketReport();
+    private static final ReportTemplate FALLBACK_SUMMARY = ReportTemplate.fallbackSummary();
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(120);
+    private static final int BREAKER_FAILURE_THRESHOLD = 3;
+    private static final Duration BREAKER_OPEN_DURATION = Duration.ofSeconds(30);
+    private ResilientLLMClient llmClient;
+    // Sends a prompt and streams the answer to the handler
+    private BiConsumer<String, StreamingResponseHandler<AiMessage>> streamingModel;
     private boolean isLocalModel;
+    private final String llmModelName;
+    private final ReportCache reportCache;
+    private final PromptBuilder promptBuilder;
 
+    // Caches reports in memory only; pass ReportCache.defaultCache() to also keep them on disk
     public LLMReportService(boolean useLocalModel) {
+        this(useLocalModel, ReportCache.inMemory());
+    }
+
+    // reportCache may be null to always call the LLM
+    public LLMReportService(boolean useLocalModel, ReportCache reportCache) {
+        this(useLocalModel, reportCache, new PromptBuilder(DEFAULT_PROMPT_TOKENS));
+    }
+
+    public LLMReportService(boolean useLocalModel, ReportCache reportCache, PromptBuilder promptBuilder) {
         this.isLocalModel = useLocalModel;
+        this.promptBuilder = promptBuilder;
+        this.llmModelName = useLocalModel ? "llama2" : "gpt-3.5-turbo";
+        this.reportCache = reportCache;
         initializeModel();
     }
 
@@ -23,11 +61,12 @@ public class LLMReportService implements ReportGenerator {
         try {
             if (isLocalModel) {
                 logger.info("Initializing local LLM (Ollama)...");
-                chatModel = OllamaChatModel.builder()
-                        .baseUrl("http://localhost:11434")
-                        .modelName("llama2")
-                        .temperature(0.7)
-                        .build();
+                String baseUrl = System.getProperty("tn.isg.economics.ollama.url", "http://localhost:11434");
+                OllamaHttpClient ollama = new OllamaHttpClient(baseUrl, llmModelName, TEMPERATURE,
+                        CONNECT_TIMEOUT, READ_TIMEOUT);
+                llmClient = new ResilientLLMClient(ollama::generate, newCircuitBreaker(), "Ollama");
+                // Streams through the same client, so a hung connect fails after CONNECT_TIMEOUT too
+                streamingModel = ollama::generateStreaming;
                 logger.info("Local LLM initialized successfully");
                 logger.info("Note: Make sure Ollama is running! (ollama serve)");
             } else {
@@ -36,60 +75,53 @@ public class LLMReportService implements ReportGenerator {
                 if (apiKey == null || apiKey.isEmpty()) {
                     logger.warning("OPENAI_API_KEY environment variable not set!");
                     logger.warning("Falling back to mock responses...");
-                    chatModel = null;
+                    llmClient = null;
+                    streamingModel = null;
                 } else {
-                    chatModel = OpenAiChatModel.builder()
+                    // Retries are left to the circuit breaker so a dead backend fails fast
+                    OpenAiChatModel openAi = OpenAiChatModel.builder()
                             .apiKey(apiKey)
-                            .modelName("gpt-3.5-turbo")
-                            .temperature(0.7)
+                            .modelName(llmModelName)
+                            .temperature(TEMPERATURE)
+                            .timeout(READ_TIMEOUT)
+                            .maxRetries(0)
                             .build();
+                    llmClient = new ResilientLLMClient(openAi::generate, newCircuitBreaker(), "OpenAI");
+                    streamingModel = OpenAiStreamingChatModel.builder()
+                            .apiKey(apiKey)
+                            .modelName(llmModelName)
+                            .temperature(TEMPERATURE)
+                            .timeout(READ_TIMEOUT)
+                            .build()::generate;
                     logger.info("OpenAI LLM initialized successfully");
                 }
             }
         } catch (Exception e) {
-            logger.severe("Failed to initialize LLM: " + e.getMessage());
+            logger.severe(() -> "Failed to initialize LLM: " + e.getMessage());
             logger.info("Will use fallback mock responses");
-            chatModel = null;
+            llmClient = null;
+            streamingModel = null;
         }
     }
 
+    private static CircuitBreaker newCircuitBreaker() {
+        return new CircuitBreaker(BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_DURATION);
+    }
+
     @Override
     public String generateMarketReport(List<PricePrediction> predictions) {
         if (predictions == null || predictions.isEmpty()) {
             throw new IllegalArgumentException("Predictions list cannot be null or empty");
         }
-        logger.info("Generating comprehensive market report for " + predictions.size() + " predictions");
-        String dataSummary = predictions.stream()
-                .map(p -> String.format(
-                        "Product: %s, Predicted Price: %.2f TND, Confidence: %.2f%%",
-                        p.productType().getFrenchName(),
-                        p.predictedPrice(),
-                        p.confidence() * 100
-                ))
-                .collect(Collectors.joining("\n"));
-        String prompt = String.format(
-                """
-                Analyze the following price predictions for Tunisian agricultural exports and generate an intelligent market report:
-                
-                %s
-                
-                Provide a detailed analysis including:
-                1. General market trends
-                2. Strategic recommendations for exporters
-                3. Identified risks
-                4. Export opportunities
-                
-                Write the report in a professional tone suitable for business decision-makers.
-                """,
-                dataSummary
-        );
-        if (chatModel != null) {
+        logger.info(() -> "Generating comprehensive market report for " + predictions.size() + " predictions");
+        String prompt = promptBuilder.buildMarketReportPrompt(predictions);
+        if (llmClient != null) {
             try {
-                String report = chatModel.generate(prompt);
+                String report = generateCached(prompt);
                 logger.info("Market report generated successfully");
                 return report;
             } catch (Exception e) {
-                logger.warning("LLM generation failed: " + e.getMessage());
+                logger.warning(() -> "LLM generation failed: " + e.getMessage());
                 return generateFallbackReport(predictions);
             }
         } else {
@@ -102,26 +134,15 @@ public class LLMReportService implements ReportGenerator {
         if (predictions == null || predictions.isEmpty()) {
             throw new IllegalArgumentException("Predictions list cannot be null or empty");
         }
-        logger.info("Generating executive summary for " + predictions.size() + " predictions");
-        String prompt = String.format(
-                """
-                Generate an executive summary in 3-4 sentences for the following Tunisian agricultural export price predictions:
-                
-                %s
-                
-                Focus on key insights and overall market direction.
-                """,
-                predictions.stream()
-                        .map(p -> p.productType().getFrenchName() + ": " + p.predictedPrice() + " TND")
-                        .collect(Collectors.joining(", "))
-        );
-        if (chatModel != null) {
+        logger.info(() -> "Generating executive summary for " + predictions.size() + " predictions");
+        String prompt = promptBuilder.buildSummaryPrompt(predictions);
+        if (llmClient != null) {
             try {
-                String summary = chatModel.generate(prompt);
+                String summary = generateCached(prompt);
                 logger.info("Summary report generated successfully");
                 return summary;
             } catch (Exception e) {
-                logger.warning("LLM generation failed: " + e.getMessage());
+                logger.warning(() -> "LLM generation failed: " + e.getMessage());
                 return generateFallbackSummary(predictions);
             }
         } else {
@@ -129,54 +150,158 @@ public class LLMReportService implements ReportGenerator {
         }
     }
 
-    private String generateFallbackReport(List<PricePrediction> predictions) {
-        StringBuilder report = new StringBuilder();
-        report.append("=== MARKET INTELLIGENCE REPORT ===\n");
-        report.append("(Generated without LLM - Basic Analysis)\n\n");
-        report.append("PRICE PREDICTIONS SUMMARY:\n");
-        for (PricePrediction pred : predictions) {
-            report.append(String.format("- %s: %.2f TND (Confidence: %.1f%%)\n",
-                    pred.productType().getFrenchName(),
-                    pred.predictedPrice(),
-                    pred.confidence() * 100));
+    public CompletableFuture<StreamedReport> streamMarketReport(List<PricePrediction> predictions,
+                                                                Consumer<String> onToken) {
+        if (predictions == null || predictions.isEmpty()) {
+            throw new IllegalArgumentException("Predictions list cannot be null or empty");
+        }
+        logger.info(() -> "Streaming market report for " + predictions.size() + " predictions");
+        long start = System.nanoTime();
+        CompletableFuture<StreamedReport> result = new CompletableFuture<>();
+        if (streamingModel == null || llmClient == null) {
+            return streamFallback(predictions, onToken, start, result);
+        }
+        String prompt = promptBuilder.buildMarketReportPrompt(predictions);
+        String key = reportCache != null ? ReportCache.key(prompt, llmModelName, TEMPERATURE) : null;
+        String cached = key != null ? reportCache.get(key).orElse(null) : null;
+        if (cached != null) {
+            deliver(onToken, cached, result);
+            result.complete(new StreamedReport(cached, 1, elapsedMillis(start), elapsedMillis(start), false));
+            return result;
+        }
+        CircuitBreaker breaker = llmClient.getCircuitBreaker();
+        if (!breaker.allowRequest()) {
+            logger.sampled("llm.circuitOpen", Level.WARNING,
+                    () -> llmClient.getDescription() + " circuit is open - streaming basic analysis");
+            return streamFallback(predictions, onToken, start, result);
+        }
+        StreamingResponseHandler<AiMessage> handler = new StreamingResponseHandler<>() {
+            private final StringBuilder text = new StringBuilder();
+            private long firstTokenMillis = -1;
+            private int tokens;
+
+            @Override
+            public void onNext(String token) {
+                if (result.isDone()) {
+                    return;
+                }
+                if (firstTokenMillis < 0) {
+                    firstTokenMillis = elapsedMillis(start);
+                }
+                tokens++;
+                text.append(token);
+                deliver(onToken, token, result);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                breaker.recordSuccess();
+                if (result.isDone()) {
+                    return;
+                }
+                String report = text.toString();
+                if (key != null) {
+                    reportCache.put(key, report);
+                }
+                StreamedReport streamed = new StreamedReport(report, tokens,
+                        Math.max(firstTokenMillis, 0), elapsedMillis(start), false);
+                logger.info(() -> String.format("Market report streamed: %d tokens, first token after %d ms, %.1f tokens/s",
+                        streamed.tokenCount(), streamed.timeToFirstTokenMillis(), streamed.getTokensPerSecond()));
+                result.complete(streamed);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                breaker.recordFailure();
+                if (result.isDone()) {
+                    return;
+                }
+                logger.warning(() -> "LLM stream failed after " + tokens + " token(s): " + error.getMessage());
+                String fallback = generateFallbackReport(predictions);
+                deliver(onToken, tokens > 0 ? STREAM_INTERRUPTED_NOTICE + fallback : fallback, result);
+                result.complete(new StreamedReport(fallback, tokens,
+                        firstTokenMillis < 0 ? elapsedMillis(start) : firstTokenMillis, elapsedMillis(start), true));
+            }
+        };
+        try {
+            streamingModel.accept(prompt, handler);
+        } catch (Exception e) {
+            handler.onError(e);
+        }
+        return result;
+    }
+
+    private CompletableFuture<StreamedReport> streamFallback(List<PricePrediction> predictions, Consumer<String> onToken,
+                                                             long start, CompletableFuture<StreamedReport> result) {
+        String fallback = generateFallbackReport(predictions);
+        deliver(onToken, fallback, result);
+        result.complete(new StreamedReport(fallback, 1, elapsedMillis(start), elapsedMillis(start), true));
+        return result;
+    }
+
+    // A failing consumer ends the stream for the caller; the LLM request itself cannot be cancelled here
+    private static void deliver(Consumer<String> onToken, String chunk, CompletableFuture<StreamedReport> result) {
+        try {
+            onToken.accept(chunk);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private String generateCached(String prompt) throws ModelException {
+        if (reportCache == null) {
+            return llmClient.generate(prompt);
+        }
+        String key = ReportCache.key(prompt, llmModelName, TEMPERATURE);
+        Optional<String> cached = reportCache.get(key);
+        if (cached.isPresent()) {
+            return cached.get();
         }
-        double avgPrice = predictions.stream()
-                .mapToDouble(PricePrediction::predictedPrice)
-                .average()
-                .orElse(0.0);
-        double avgConfidence = predictions.stream()
-                .mapToDouble(PricePrediction::confidence)
-                .average()
-                .orElse(0.0);
-        report.append(String.format("\nAVERAGE PREDICTED PRICE: %.2f TND\n", avgPrice));
-        report.append(String.format("AVERAGE CONFIDENCE: %.1f%%\n", avgConfidence * 100));
-        report.append("\nNote: For detailed AI-generated insights, please configure LLM integration.\n");
-        return report.toString();
-    }
-
-    private String generateFallbackSummary(List<PricePrediction> predictions) {
-        double avgPrice = predictions.stream()
-                .mapToDouble(PricePrediction::predictedPrice)
-                .average()
-                .orElse(0.0);
-        return String.format(
-                "Executive Summary: Analyzed %d Tunisian agricultural export predictions. " +
-                        "Average predicted price: %.2f TND. " +
-                        "Overall market confidence is moderate. " +
-                        "Detailed insights require LLM integration.",
-                predictions.size(),
-                avgPrice
-        );
+        String generated = llmClient.generate(prompt);
+        reportCache.put(key, generated);
+        return generated;
+    }
+
+    public String generateFallbackReport(List<PricePrediction> predictions) {
+        return FALLBACK_REPORT.renderToString(predictions);
+    }
+
+    public String generateFallbackSummary(List<PricePrediction> predictions) {
+        return FALLBACK_SUMMARY.renderToString(predictions);
+    }
+
+    // Batch variant of the basic analysis: streams straight to the writer, whatever the number of predictions
+    public PromptBuilder.ProductAggregate writeFallbackReport(Iterable<PricePrediction> predictions, Writer out)
+            throws IOException {
+        return FALLBACK_REPORT.render(predictions, out);
+    }
+
+    public boolean isStreamingReady() {
+        return streamingModel != null;
     }
 
     public boolean isLLMReady() {
-        return chatModel != null;
+        return llmClient != null;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return llmClient != null ? llmClient.getCircuitBreaker().getState() : CircuitBreaker.State.OPEN;
+    }
+
+    public ReportCache getReportCache() {
+        return reportCache;
     }
 
     public String getModelInfo() {
-        if (chatModel == null) {
+        if (llmClient == null) {
             return "LLM not initialized - using fallback mode";
         }
-        return isLocalModel ? "Ollama (Local Model)" : "OpenAI (Cloud API)";
+        String info = isLocalModel ? "Ollama (Local Model)" : "OpenAI (Cloud API)";
+        CircuitBreaker.State state = llmClient.getCircuitBreaker().getState();
+        return state == CircuitBreaker.State.CLOSED ? info : info + " - circuit " + state;
     }
 }
\ No newline at end of file
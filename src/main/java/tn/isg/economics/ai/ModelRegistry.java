@@ -0,0 +1,320 @@
+package tn.isg.economics.ai;
+
+import tn.isg.economics.annotation.AIService;
+import tn.isg.economics.exception.ModelException;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.service.PredictionService;
+import tn.isg.economics.util.DataGenerator;
+import tn.isg.economics.util.AsyncLogger;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+public class ModelRegistry implements AutoCloseable {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(ModelRegistry.class);
+    private static final long WARMUP_SEED = 42L;
+    private static final LocalDate WARMUP_START_DATE = LocalDate.of(2023, 1, 1);
+    private final Map<String, AtomicReference<ModelHandle>> activeModels = new ConcurrentHashMap<>();
+    private final ExecutorService swapExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("model-swap-", 0).factory());
+    private final int warmupRounds;
+    private final int warmupBatchSize;
+
+    public ModelRegistry() {
+        this(3, 100);
+    }
+
+    public ModelRegistry(int warmupRounds, int warmupBatchSize) {
+        if (warmupRounds < 0 || warmupBatchSize < 1) {
+            throw new IllegalArgumentException("Warm-up rounds must be >= 0 and batch size >= 1");
+        }
+        this.warmupRounds = warmupRounds;
+        this.warmupBatchSize = warmupBatchSize;
+    }
+
+    // Wraps a model as it is; loading stays with the caller, as before the registry existed
+    public static ModelRegistry of(BaseAIModel model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null");
+        }
+        ModelRegistry registry = new ModelRegistry();
+        registry.install(model);
+        return registry;
+    }
+
+    public static String providerOf(BaseAIModel model) {
+        AIService service = model.getClass().getAnnotation(AIService.class);
+        return service != null ? service.provider() : model.getModelName();
+    }
+
+    public static String versionOf(BaseAIModel model) {
+        AIService service = model.getClass().getAnnotation(AIService.class);
+        return service != null ? service.version() : "unknown";
+    }
+
+    public String register(BaseAIModel model) throws ModelException {
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null");
+        }
+        if (!model.isModelLoaded()) {
+            model.loadModel();
+        }
+        return install(model);
+    }
+
+    private String install(BaseAIModel model) {
+        String provider = providerOf(model);
+        ModelHandle previous = activeModels
+                .computeIfAbsent(provider, key -> new AtomicReference<>())
+                .getAndSet(new ModelHandle(model));
+        if (previous != null && previous.model != model) {
+            previous.retire();
+        }
+        logger.info(() -> "Registered model " + model.getModelName() + " (" + provider + " v" + versionOf(model) + ")");
+        return provider;
+    }
+
+    public List<String> discover(String packageName) throws ModelException {
+        List<String> providers = new ArrayList<>();
+        for (Class<?> type : findClasses(packageName)) {
+            if (!BaseAIModel.class.isAssignableFrom(type)
+                    || Modifier.isAbstract(type.getModifiers())
+                    || !type.isAnnotationPresent(AIService.class)) {
+                continue;
+            }
+            try {
+                BaseAIModel model = (BaseAIModel) type.getDeclaredConstructor().newInstance();
+                providers.add(register(model));
+            } catch (ReflectiveOperationException e) {
+                throw new ModelException("Cannot instantiate model " + type.getName() + ": " + e.getMessage(), e);
+            }
+        }
+        logger.info(() -> "Discovered " + providers.size() + " @AIService model(s) in " + packageName);
+        return providers;
+    }
+
+    private static List<Class<?>> findClasses(String packageName) throws ModelException {
+        String path = packageName.replace('.', '/');
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        List<String> classNames = new ArrayList<>();
+        try {
+            Enumeration<URL> resources = loader.getResources(path);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                if ("file".equals(resource.getProtocol())) {
+                    File[] files = new File(URLDecoder.decode(resource.getFile(), StandardCharsets.UTF_8)).listFiles();
+                    if (files == null) {
+                        continue;
+                    }
+                    for (File file : files) {
+                        String name = file.getName();
+                        if (name.endsWith(".class") && !name.contains("$")) {
+                            classNames.add(packageName + "." + name.substring(0, name.length() - 6));
+                        }
+                    }
+                } else if ("jar".equals(resource.getProtocol())) {
+                    JarFile jar = ((JarURLConnection) resource.openConnection()).getJarFile();
+                    for (JarEntry entry : Collections.list(jar.entries())) {
+                        String name = entry.getName();
+                        if (name.startsWith(path + "/") && name.endsWith(".class") && !name.contains("$")
+                                && name.indexOf('/', path.length() + 1) < 0) {
+                            classNames.add(name.substring(0, name.length() - 6).replace('/', '.'));
+                        }
+                    }
+                }
+            }
+            List<Class<?>> classes = new ArrayList<>();
+            for (String className : classNames) {
+                classes.add(Class.forName(className, false, loader));
+            }
+            return classes;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new ModelException("Failed to scan package " + packageName + ": " + e.getMessage(), e);
+        }
+    }
+
+    public CompletableFuture<BaseAIModel> hotSwap(String provider, BaseAIModel replacement) {
+        AtomicReference<ModelHandle> slot = activeModels.get(provider);
+        if (slot == null) {
+            return CompletableFuture.failedFuture(
+                    new ModelException("No model registered for provider: " + provider));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                long start = System.nanoTime();
+                logger.info(() -> "Hot swap: loading " + replacement.getModelName() + " in background");
+                replacement.loadModel();
+                warmUp(replacement);
+                ModelHandle previous = slot.getAndSet(new ModelHandle(replacement));
+                logger.info(() -> "Hot swap: " + provider + " now served by " + replacement.getModelName()
+                        + " v" + versionOf(replacement)
+                        + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+                previous.retire();
+                return previous.model;
+            } catch (ModelException e) {
+                replacement.unloadModel();
+                throw new CompletionException(e);
+            }
+        }, swapExecutor);
+    }
+
+    private void warmUp(BaseAIModel model) {
+        if (warmupRounds == 0) {
+            return;
+        }
+        // Seeded and silent, like StartupOrchestrator's warm-up: hot swaps run in the background
+        List<ExportData> synthetic = DataGenerator.generateExports(WARMUP_SEED, warmupBatchSize,
+                WARMUP_START_DATE, WARMUP_START_DATE.plusYears(2));
+        for (int round = 0; round < warmupRounds; round++) {
+            model.predictBatch(synthetic);
+        }
+    }
+
+    public Lease acquire(String provider) throws ModelException {
+        AtomicReference<ModelHandle> slot = activeModels.get(provider);
+        if (slot == null) {
+            throw new ModelException("No model registered for provider: " + provider);
+        }
+        while (true) {
+            ModelHandle handle = slot.get();
+            if (handle.tryAcquire()) {
+                return new Lease(handle);
+            }
+            // Lost a race with a swap: the handle retired between get() and tryAcquire()
+        }
+    }
+
+    public BaseAIModel getActiveModel(String provider) {
+        AtomicReference<ModelHandle> slot = activeModels.get(provider);
+        return slot == null ? null : slot.get().model;
+    }
+
+    public int getInFlight(String provider) {
+        AtomicReference<ModelHandle> slot = activeModels.get(provider);
+        return slot == null ? 0 : slot.get().inFlight.get();
+    }
+
+    public Set<String> getProviders() {
+        return Collections.unmodifiableSet(activeModels.keySet());
+    }
+
+    public PredictionService predictionService(String provider) {
+        return new PredictionService() {
+            @Override
+            public PricePrediction predictPrice(ExportData input) {
+                try (Lease lease = acquireUnchecked(provider)) {
+                    return lease.model().predictPrice(input);
+                }
+            }
+
+            @Override
+            public List<PricePrediction> predictBatch(List<ExportData> inputs) {
+                try (Lease lease = acquireUnchecked(provider)) {
+                    return lease.model().predictBatch(inputs);
+                }
+            }
+
+            @Override
+            public double getModelAccuracy() {
+                return getActiveModel(provider).getModelAccuracy();
+            }
+        };
+    }
+
+    private Lease acquireUnchecked(String provider) {
+        try {
+            return acquire(provider);
+        } catch (ModelException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        swapExecutor.shutdown();
+        activeModels.values().forEach(slot -> slot.get().retire());
+    }
+
+    public static final class Lease implements AutoCloseable {
+        private final ModelHandle handle;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(ModelHandle handle) {
+            this.handle = handle;
+        }
+
+        public BaseAIModel model() {
+            return handle.model;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                handle.release();
+            }
+        }
+    }
+
+    private static final class ModelHandle {
+        private final BaseAIModel model;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean unloaded = new AtomicBoolean();
+        private volatile boolean retired;
+
+        private ModelHandle(BaseAIModel model) {
+            this.model = model;
+        }
+
+        private boolean tryAcquire() {
+            inFlight.incrementAndGet();
+            if (retired) {
+                release();
+                return false;
+            }
+            return true;
+        }
+
+        private void release() {
+            if (inFlight.decrementAndGet() == 0 && retired) {
+                unloadOnce();
+            }
+        }
+
+        private void retire() {
+            retired = true;
+            if (inFlight.get() == 0) {
+                unloadOnce();
+            } else {
+                logger.info(() -> "Draining " + inFlight.get() + " in-flight request(s) on " + model.getModelName());
+            }
+        }
+
+        private void unloadOnce() {
+            if (unloaded.compareAndSet(false, true)) {
+                model.unloadModel();
+            }
+        }
+    }
+}
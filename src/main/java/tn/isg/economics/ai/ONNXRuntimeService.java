@@ -9,6 +9,7 @@ import tn.isg.economics.exception.ModelException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Random;
+import java.util.logging.Level;
 
 @AIService(provider = "ONNX Runtime", version = "1.19.2")
 public class ONNXRuntimeService extends BaseAIModel {
@@ -37,7 +38,7 @@ public class ONNXRuntimeService extends BaseAIModel {
     public PricePrediction predictPrice(ExportData input) {
         validateInput(input);
         try {
-            logger.info("ONNX: Generating prediction for: " + input.productType());
+            logger.sampled("onnx.predict", Level.INFO, () -> "ONNX: Generating prediction for: " + input.productType());
             double currentPrice = input.pricePerTon();
             double volume = input.volume();
             double volumeFactor = volume > 100 ? 0.98 : 1.02;
@@ -63,8 +64,10 @@ public class ONNXRuntimeService extends BaseAIModel {
             predictedPrice = Math.round(predictedPrice * 100.0) / 100.0;
             PredictionStatus status = confidence >= 0.75 ?
                     PredictionStatus.COMPLETED : PredictionStatus.LOW_CONFIDENCE;
-            logger.info(String.format("ONNX Prediction: %.2f TND (confidence: %.2f%%)",
-                    predictedPrice, confidence * 100));
+            double loggedPrice = predictedPrice;
+            double loggedConfidence = confidence;
+            logger.sampled("onnx.completed", Level.INFO, () -> String.format(
+                    "ONNX Prediction: %.2f TND (confidence: %.2f%%)", loggedPrice, loggedConfidence * 100));
             return new PricePrediction(
                     LocalDate.now().plusDays(30),
                     input.productType(),
@@ -74,7 +77,7 @@ public class ONNXRuntimeService extends BaseAIModel {
                     status
             );
         } catch (Exception e) {
-            logger.severe("ONNX prediction failed: " + e.getMessage());
+            logger.sampled("onnx.failed", Level.SEVERE, () -> "ONNX prediction failed: " + e.getMessage());
             return new PricePrediction(
                     LocalDate.now(),
                     input.productType(),
@@ -88,7 +91,7 @@ public class ONNXRuntimeService extends BaseAIModel {
 
     @Override
     public List<PricePrediction> predictBatch(List<ExportData> inputs) {
-        logger.info("ONNX: Starting batch prediction for " + inputs.size() + " items");
+        logger.info(() -> "ONNX: Starting batch prediction for " + inputs.size() + " items");
         return inputs.stream()
                 .map(this::predictPrice)
                 .toList();
@@ -0,0 +1,186 @@
+package tn.isg.economics.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Minimal client for Ollama's /api/generate, blocking or streaming. One HttpClient per instance keeps
+// HTTP/1.1 connections alive and reuses them. The connect timeout is the client's; the read timeout
+// bounds the whole response on the blocking path and the silence between lines on the streaming path
+// (Ollama sends streaming headers at once, so a request timeout alone would not catch a stalled stream).
+public class OllamaHttpClient {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final URI generateUri;
+    private final URI tagsUri;
+    private final String modelName;
+    private final double temperature;
+    private final Duration readTimeout;
+
+    public OllamaHttpClient(String baseUrl, String modelName, double temperature,
+                            Duration connectTimeout, Duration readTimeout) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.generateUri = URI.create(base + "/api/generate");
+        this.tagsUri = URI.create(base + "/api/tags");
+        this.modelName = modelName;
+        this.temperature = temperature;
+        this.readTimeout = readTimeout;
+    }
+
+    public String generate(String prompt) throws IOException, InterruptedException {
+        HttpResponse<String> response = sendWithin(generateRequest(prompt, false));
+        if (response.statusCode() != 200) {
+            throw new IOException("Ollama returned HTTP " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode json = objectMapper.readTree(response.body());
+        if (!json.has("response")) {
+            throw new IOException("Ollama response has no 'response' field");
+        }
+        return json.get("response").asText();
+    }
+
+    // Streams /api/generate tokens to the handler from a virtual thread; returns immediately
+    public void generateStreaming(String prompt, StreamingResponseHandler<AiMessage> handler) {
+        Thread.ofVirtual().name("ollama-stream").start(() -> {
+            try {
+                streamTokens(prompt, handler);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                handler.onError(e);
+            } catch (IOException | RuntimeException e) {
+                handler.onError(e);
+            }
+        });
+    }
+
+    // ofString completes only once the body is read, so waiting on it bounds headers and body together
+    private HttpResponse<String> sendWithin(HttpRequest request) throws IOException, InterruptedException {
+        CompletableFuture<HttpResponse<String>> response = httpClient.sendAsync(request,
+                HttpResponse.BodyHandlers.ofString());
+        try {
+            return response.get(readTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw new HttpTimeoutException("No complete response from Ollama within " + readTimeout);
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Ollama request failed", e.getCause());
+        }
+    }
+
+    private void streamTokens(String prompt, StreamingResponseHandler<AiMessage> handler)
+            throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = httpClient.send(generateRequest(prompt, true),
+                HttpResponse.BodyHandlers.ofInputStream());
+        AtomicLong lastLineNanos = new AtomicLong(System.nanoTime());
+        AtomicBoolean timedOut = new AtomicBoolean();
+        InputStream body = response.body();
+        Thread watchdog = Thread.ofVirtual().name("ollama-stream-watchdog")
+                .start(() -> closeWhenIdle(body, lastLineNanos, timedOut));
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Ollama returned HTTP " + response.statusCode() + ": "
+                        + String.join("\n", lines.lines().toList()));
+            }
+            StringBuilder text = new StringBuilder();
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lastLineNanos.set(System.nanoTime());
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode chunk = objectMapper.readTree(line);
+                if (chunk.has("error")) {
+                    throw new IOException("Ollama stream failed: " + chunk.get("error").asText());
+                }
+                String token = chunk.path("response").asText("");
+                if (!token.isEmpty()) {
+                    text.append(token);
+                    handler.onNext(token);
+                }
+                if (chunk.path("done").asBoolean(false)) {
+                    handler.onComplete(Response.from(AiMessage.from(text.toString())));
+                    return;
+                }
+            }
+            throw new IOException("Ollama stream ended before completion");
+        } catch (IOException e) {
+            if (timedOut.get()) {
+                throw new HttpTimeoutException("Ollama stream sent nothing for " + readTimeout);
+            }
+            throw e;
+        } finally {
+            watchdog.interrupt();
+        }
+    }
+
+    // Closing the body is the only way to unblock a read that is waiting on a stalled stream
+    private void closeWhenIdle(InputStream body, AtomicLong lastLineNanos, AtomicBoolean timedOut) {
+        try {
+            long remaining;
+            while ((remaining = readTimeout.toNanos() - (System.nanoTime() - lastLineNanos.get())) > 0) {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+            timedOut.set(true);
+            body.close();
+        } catch (InterruptedException | IOException e) {
+            // Stream finished first, or closing it failed; either way there is nothing left to stop
+        }
+    }
+
+    // The request timeout bounds the wait for the response headers; the body is bounded by the callers
+    private HttpRequest generateRequest(String prompt, boolean stream) throws IOException {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "model", modelName,
+                "prompt", prompt,
+                "stream", stream,
+                "options", Map.of("temperature", temperature)
+        ));
+        return HttpRequest.newBuilder(generateUri)
+                .timeout(readTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    public boolean isReachable() {
+        HttpRequest request = HttpRequest.newBuilder(tagsUri).timeout(readTimeout).GET().build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
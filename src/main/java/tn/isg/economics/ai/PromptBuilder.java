@@ -0,0 +1,199 @@
+package tn.isg.economics.ai;
+
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.model.ProductType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Reduces predictions to per-product aggregates in one pass and renders them within a token budget,
+// so prompt size depends on the number of products, not the number of predictions
+public class PromptBuilder {
+    private static final int CHARS_PER_TOKEN = 4; // rough estimate for English text with llama/gpt tokenizers
+    private static final double[] CONFIDENCE_BOUNDS = {0.5, 0.7, 0.85};
+    private static final String[] CONFIDENCE_LABELS = {"<50%", "50-70%", "70-85%", ">=85%"};
+    private static final int OMISSION_NOTE_RESERVE = 80;
+    private static final String MARKET_REPORT_FOOTER = """
+
+            Provide a detailed analysis including:
+            1. General market trends
+            2. Strategic recommendations for exporters
+            3. Identified risks
+            4. Export opportunities
+
+            Write the report in a professional tone suitable for business decision-makers.
+            """;
+    private static final String SUMMARY_FOOTER = "\nFocus on key insights and overall market direction.\n";
+    // Smallest budget that still holds the longer prompt's fixed text and the omission note
+    public static final int MIN_PROMPT_TOKENS = Math.ceilDiv(Math.max(
+            marketReportHeader(Long.MAX_VALUE).length() + MARKET_REPORT_FOOTER.length(),
+            summaryHeader(Long.MAX_VALUE).length() + SUMMARY_FOOTER.length()) + OMISSION_NOTE_RESERVE,
+            CHARS_PER_TOKEN);
+    private final int maxPromptTokens;
+
+    public PromptBuilder(int maxPromptTokens) {
+        if (maxPromptTokens < MIN_PROMPT_TOKENS) {
+            throw new IllegalArgumentException("Token budget must be at least " + MIN_PROMPT_TOKENS);
+        }
+        this.maxPromptTokens = maxPromptTokens;
+    }
+
+    public static final class ProductAggregate {
+        private long count;
+        private double sum;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private double confidenceSum;
+        private final long[] confidenceBuckets = new long[CONFIDENCE_LABELS.length];
+        private final long[] statusCounts = new long[PredictionStatus.values().length];
+
+        void add(PricePrediction prediction) {
+            double price = prediction.predictedPrice();
+            count++;
+            sum += price;
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+            confidenceSum += prediction.confidence();
+            int bucket = 0;
+            while (bucket < CONFIDENCE_BOUNDS.length && prediction.confidence() >= CONFIDENCE_BOUNDS[bucket]) {
+                bucket++;
+            }
+            confidenceBuckets[bucket]++;
+            statusCounts[prediction.status().ordinal()]++;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double mean() {
+            return count == 0 ? 0.0 : sum / count;
+        }
+
+        public double min() {
+            return count == 0 ? 0.0 : min;
+        }
+
+        public double max() {
+            return count == 0 ? 0.0 : max;
+        }
+
+        public double meanConfidence() {
+            return count == 0 ? 0.0 : confidenceSum / count;
+        }
+
+        public long statusCount(PredictionStatus status) {
+            return statusCounts[status.ordinal()];
+        }
+    }
+
+    public static Map<ProductType, ProductAggregate> aggregate(List<PricePrediction> predictions) {
+        Map<ProductType, ProductAggregate> aggregates = new EnumMap<>(ProductType.class);
+        for (PricePrediction prediction : predictions) {
+            aggregates.computeIfAbsent(prediction.productType(), product -> new ProductAggregate()).add(prediction);
+        }
+        return aggregates;
+    }
+
+    public String buildMarketReportPrompt(List<PricePrediction> predictions) {
+        return render(marketReportHeader(predictions.size()), MARKET_REPORT_FOOTER, aggregate(predictions), true);
+    }
+
+    public String buildSummaryPrompt(List<PricePrediction> predictions) {
+        return render(summaryHeader(predictions.size()), SUMMARY_FOOTER, aggregate(predictions), false);
+    }
+
+    private static String marketReportHeader(long predictionCount) {
+        return "Analyze the following price predictions for Tunisian agricultural exports "
+                + "and generate an intelligent market report.\n"
+                + "The data is aggregated per product over " + predictionCount + " predictions:\n\n";
+    }
+
+    private static String summaryHeader(long predictionCount) {
+        return "Generate an executive summary in 3-4 sentences for the following Tunisian agricultural "
+                + "export price predictions (" + predictionCount + " predictions, aggregated per product):\n\n";
+    }
+
+    private String render(String header, String footer, Map<ProductType, ProductAggregate> aggregates,
+                          boolean detailed) {
+        int budgetChars = maxPromptTokens * CHARS_PER_TOKEN - header.length() - footer.length();
+        List<Map.Entry<ProductType, ProductAggregate>> byVolume = new ArrayList<>(aggregates.entrySet());
+        byVolume.sort(Comparator.comparingLong(
+                (Map.Entry<ProductType, ProductAggregate> entry) -> entry.getValue().count()).reversed());
+        List<String> lines = new ArrayList<>(byVolume.size());
+        if (detailed) {
+            byVolume.forEach(entry -> lines.add(detailedLine(entry.getKey(), entry.getValue())));
+        }
+        if (!detailed || totalLength(lines) > budgetChars) {
+            lines.clear();
+            byVolume.forEach(entry -> lines.add(compactLine(entry.getKey(), entry.getValue())));
+        }
+        StringBuilder prompt = new StringBuilder(budgetChars + header.length() + footer.length());
+        prompt.append(header);
+        int used = 0;
+        int included = 0;
+        for (String line : lines) {
+            // Always keep room for the omission note
+            if (used + line.length() > budgetChars - OMISSION_NOTE_RESERVE) {
+                break;
+            }
+            prompt.append(line);
+            used += line.length();
+            included++;
+        }
+        if (included < lines.size()) {
+            prompt.append("- (").append(lines.size() - included)
+                    .append(" smaller product group(s) omitted to fit the prompt budget)\n");
+        }
+        prompt.append(footer);
+        return prompt.toString();
+    }
+
+    private static int totalLength(List<String> lines) {
+        return lines.stream().mapToInt(String::length).sum();
+    }
+
+    private static String compactLine(ProductType product, ProductAggregate aggregate) {
+        return summary(product, aggregate) + "\n";
+    }
+
+    private static String summary(ProductType product, ProductAggregate aggregate) {
+        return String.format("- %s: %d predictions, mean %.2f TND (range %.2f-%.2f), mean confidence %.1f%%",
+                product.getFrenchName(),
+                aggregate.count(),
+                aggregate.mean(),
+                aggregate.min(),
+                aggregate.max(),
+                aggregate.meanConfidence() * 100);
+    }
+
+    private static String detailedLine(ProductType product, ProductAggregate aggregate) {
+        StringBuilder line = new StringBuilder(summary(product, aggregate));
+        line.append("; confidence");
+        for (int i = 0; i < CONFIDENCE_LABELS.length; i++) {
+            line.append(i == 0 ? " " : ", ").append(CONFIDENCE_LABELS[i]).append(": ")
+                    .append(aggregate.confidenceBuckets[i]);
+        }
+        line.append("; status");
+        String separator = " ";
+        for (PredictionStatus status : PredictionStatus.values()) {
+            long statusCount = aggregate.statusCount(status);
+            if (statusCount > 0) {
+                line.append(separator).append(status).append(": ").append(statusCount);
+                separator = ", ";
+            }
+        }
+        return line.append('\n').toString();
+    }
+
+    public int estimateTokens(String prompt) {
+        return (prompt.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public int getMaxPromptTokens() {
+        return maxPromptTokens;
+    }
+}
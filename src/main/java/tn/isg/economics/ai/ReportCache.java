@@ -0,0 +1,261 @@
+package tn.isg.economics.ai;
+
+import tn.isg.economics.util.AsyncLogger;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Content-addressed report cache: in-memory LRU, optionally in front of one file per key on disk
+public class ReportCache {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(ReportCache.class);
+    private static final String SUFFIX = ".report";
+    private static final long DEFAULT_MEMORY_CHARS = 4L * 1024 * 1024;
+    // Disk writes and deletes of one key are serialized, so diskBytes sees each file change once
+    private final Object[] keyLocks = new Object[64];
+    private final Path directory;
+    private final long maxMemoryChars;
+    private final long maxDiskBytes;
+    private final LinkedHashMap<String, String> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryChars;
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // directory null keeps the cache in memory only
+    public ReportCache(Path directory, long maxMemoryChars, long maxDiskBytes) {
+        if (maxMemoryChars < 0 || maxDiskBytes < 0) {
+            throw new IllegalArgumentException("Cache sizes cannot be negative");
+        }
+        this.directory = directory;
+        this.maxMemoryChars = maxMemoryChars;
+        this.maxDiskBytes = maxDiskBytes;
+        for (int i = 0; i < keyLocks.length; i++) {
+            keyLocks[i] = new Object();
+        }
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                diskBytes.set(files.filter(file -> file.toString().endsWith(SUFFIX))
+                        .mapToLong(ReportCache::sizeOf)
+                        .sum());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open report cache at " + directory, e);
+        }
+    }
+
+    public static ReportCache inMemory() {
+        return new ReportCache(null, DEFAULT_MEMORY_CHARS, 0);
+    }
+
+    // Persists reports under data/report-cache; callers opt in, nothing is written to disk by default
+    public static ReportCache defaultCache() {
+        return new ReportCache(Paths.get("data", "report-cache"), DEFAULT_MEMORY_CHARS, 256L * 1024 * 1024);
+    }
+
+    public static String key(String prompt, String modelName, double temperature) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Double.toString(temperature).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(canonicalize(prompt).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Line endings and trailing whitespace do not change what the model sees, so they do not change the key
+    private static String canonicalize(String prompt) {
+        StringBuilder canonical = new StringBuilder(prompt.length());
+        for (String line : prompt.strip().split("\\R")) {
+            canonical.append(line.stripTrailing()).append('\n');
+        }
+        return canonical.toString();
+    }
+
+    public Optional<String> get(String key) {
+        synchronized (memory) {
+            String cached = memory.get(key);
+            if (cached != null) {
+                memoryHits.incrementAndGet();
+                return Optional.of(cached);
+            }
+        }
+        if (directory == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        Path file = directory.resolve(key + SUFFIX);
+        try {
+            String report = Files.readString(file, StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            diskHits.incrementAndGet();
+            putInMemory(key, report);
+            return Optional.of(report);
+        } catch (IOException e) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, String report) {
+        if (report == null) {
+            return;
+        }
+        putInMemory(key, report);
+        if (directory == null) {
+            return;
+        }
+        Path file = directory.resolve(key + SUFFIX);
+        try {
+            long total;
+            synchronized (lockFor(key)) {
+                long previousSize = sizeOf(file);
+                Path temp = Files.createTempFile(directory, key, ".tmp");
+                Files.writeString(temp, report, StandardCharsets.UTF_8);
+                long size = Files.size(temp);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                total = diskBytes.addAndGet(size - previousSize);
+            }
+            if (total > maxDiskBytes) {
+                evictFromDisk();
+            }
+        } catch (IOException e) {
+            logger.warning(() -> "Could not persist cached report " + key + ": " + e.getMessage());
+        }
+    }
+
+    private void putInMemory(String key, String report) {
+        if (report.length() > maxMemoryChars) {
+            return;
+        }
+        synchronized (memory) {
+            String previous = memory.put(key, report);
+            memoryChars += report.length() - (previous != null ? previous.length() : 0);
+            Iterator<Map.Entry<String, String>> eldest = memory.entrySet().iterator();
+            while (memoryChars > maxMemoryChars && eldest.hasNext()) {
+                memoryChars -= eldest.next().getValue().length();
+                eldest.remove();
+            }
+        }
+    }
+
+    private synchronized void evictFromDisk() throws IOException {
+        List<Path> oldestFirst;
+        try (Stream<Path> files = Files.list(directory)) {
+            oldestFirst = files.filter(file -> file.toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(ReportCache::lastModified))
+                    .toList();
+        }
+        for (Path file : oldestFirst) {
+            if (diskBytes.get() <= maxDiskBytes) {
+                break;
+            }
+            if (delete(file)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean delete(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        synchronized (lockFor(name.substring(0, name.length() - SUFFIX.length()))) {
+            long size = sizeOf(file);
+            if (Files.deleteIfExists(file)) {
+                diskBytes.addAndGet(-size);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private Object lockFor(String key) {
+        return keyLocks[(key.hashCode() & 0x7fffffff) % keyLocks.length];
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0L;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    public void clear() throws IOException {
+        synchronized (memory) {
+            memory.clear();
+            memoryChars = 0;
+        }
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(SUFFIX)).toList()) {
+                delete(file);
+            }
+        }
+    }
+
+    public double getHitRate() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public String getStatistics() {
+        synchronized (memory) {
+            return String.format(
+                    """
+                    === REPORT CACHE ===
+                    Memory Entries: %d (%d chars)
+                    Disk Usage: %d bytes
+                    Memory Hits: %d
+                    Disk Hits: %d
+                    Misses: %d
+                    Evictions: %d
+                    Hit Rate: %.1f%%
+                    """,
+                    memory.size(),
+                    memoryChars,
+                    diskBytes.get(),
+                    memoryHits.get(),
+                    diskHits.get(),
+                    misses.get(),
+                    evictions.get(),
+                    getHitRate() * 100
+            );
+        }
+    }
+}
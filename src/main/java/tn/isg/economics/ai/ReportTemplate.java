@@ -0,0 +1,245 @@
+package tn.isg.economics.ai;
+
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Report template compiled once into literal/field segments and rendered to a Writer in a single pass.
+// Rows are streamed as they arrive; totals and per-product sections come from aggregates built during
+// that pass, so memory depends on the number of products, not the number of predictions.
+// Placeholders: row {product} {date} {price} {confidence} {model} {status};
+// section {product} {count} {avgPrice} {minPrice} {maxPrice} {avgConfidence};
+// footer the same as section without {product}, plus {sections}. The header is literal text.
+public final class ReportTemplate {
+    private static final int FLUSH_THRESHOLD = 8192;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private enum Part { HEADER, ROW, SECTION, FOOTER }
+
+    private enum Field {
+        PRODUCT("product", Part.ROW, Part.SECTION),
+        DATE("date", Part.ROW),
+        PRICE("price", Part.ROW),
+        CONFIDENCE("confidence", Part.ROW),
+        MODEL("model", Part.ROW),
+        STATUS("status", Part.ROW),
+        COUNT("count", Part.SECTION, Part.FOOTER),
+        AVG_PRICE("avgPrice", Part.SECTION, Part.FOOTER),
+        MIN_PRICE("minPrice", Part.SECTION, Part.FOOTER),
+        MAX_PRICE("maxPrice", Part.SECTION, Part.FOOTER),
+        AVG_CONFIDENCE("avgConfidence", Part.SECTION, Part.FOOTER),
+        SECTIONS("sections", Part.FOOTER);
+
+        private final String placeholder;
+        private final List<Part> allowedIn;
+
+        Field(String placeholder, Part... allowedIn) {
+            this.placeholder = placeholder;
+            this.allowedIn = List.of(allowedIn);
+        }
+    }
+
+    // field == null marks a literal segment
+    private record Segment(String literal, Field field) {
+    }
+
+    private final Segment[] header;
+    private final Segment[] row;
+    private final Segment[] section;
+    private final Segment[] footer;
+
+    private ReportTemplate(Segment[] header, Segment[] row, Segment[] section, Segment[] footer) {
+        this.header = header;
+        this.row = row;
+        this.section = section;
+        this.footer = footer;
+    }
+
+    public static ReportTemplate compile(String header, String row, String section, String footer) {
+        return new ReportTemplate(
+                parse(header, Part.HEADER),
+                parse(row, Part.ROW),
+                parse(section, Part.SECTION),
+                parse(footer, Part.FOOTER));
+    }
+
+    public static ReportTemplate fallbackMarketReport() {
+        return compile(
+                """
+                === MARKET INTELLIGENCE REPORT ===
+                (Generated without LLM - Basic Analysis)
+
+                PRICE PREDICTIONS SUMMARY:
+                """,
+                "- {product}: {price} TND (Confidence: {confidence}%)\n",
+                "- {product}: {count} predictions, average {avgPrice} TND "
+                        + "(range {minPrice}-{maxPrice}), confidence {avgConfidence}%\n",
+                """
+
+                BY PRODUCT:
+                {sections}
+                AVERAGE PREDICTED PRICE: {avgPrice} TND
+                AVERAGE CONFIDENCE: {avgConfidence}%
+
+                Note: For detailed AI-generated insights, please configure LLM integration.
+                """);
+    }
+
+    public static ReportTemplate fallbackSummary() {
+        return compile("", "", "",
+                "Executive Summary: Analyzed {count} Tunisian agricultural export predictions. "
+                        + "Average predicted price: {avgPrice} TND. "
+                        + "Overall market confidence is moderate. "
+                        + "Detailed insights require LLM integration.");
+    }
+
+    private static Segment[] parse(String text, Part part) {
+        List<Segment> segments = new ArrayList<>();
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf('{', position);
+            if (open < 0) {
+                segments.add(new Segment(text.substring(position), null));
+                break;
+            }
+            int close = text.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in " + part + " template at " + open);
+            }
+            if (open > position) {
+                segments.add(new Segment(text.substring(position, open), null));
+            }
+            segments.add(new Segment(null, resolve(text.substring(open + 1, close), part)));
+            position = close + 1;
+        }
+        return segments.toArray(new Segment[0]);
+    }
+
+    private static Field resolve(String placeholder, Part part) {
+        for (Field field : Field.values()) {
+            if (field.placeholder.equals(placeholder)) {
+                if (!field.allowedIn.contains(part)) {
+                    throw new IllegalArgumentException("{" + placeholder + "} is not available in the "
+                            + part + " template");
+                }
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown placeholder {" + placeholder + "}");
+    }
+
+    public PromptBuilder.ProductAggregate render(Iterable<PricePrediction> predictions, Writer out) throws IOException {
+        Map<ProductType, PromptBuilder.ProductAggregate> byProduct = new EnumMap<>(ProductType.class);
+        PromptBuilder.ProductAggregate totals = new PromptBuilder.ProductAggregate();
+        // One line buffer and one char buffer for the whole report, reused for every row
+        StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD * 2);
+        char[] chars = new char[FLUSH_THRESHOLD * 2];
+        appendSegments(buffer, header, null, null, null, null);
+        for (PricePrediction prediction : predictions) {
+            totals.add(prediction);
+            byProduct.computeIfAbsent(prediction.productType(), product -> new PromptBuilder.ProductAggregate())
+                    .add(prediction);
+            if (row.length > 0) {
+                appendSegments(buffer, row, prediction, null, null, null);
+                if (buffer.length() >= FLUSH_THRESHOLD) {
+                    chars = flush(buffer, chars, out);
+                }
+            }
+        }
+        appendSegments(buffer, footer, null, null, totals, byProduct);
+        flush(buffer, chars, out);
+        out.flush();
+        return totals;
+    }
+
+    public PromptBuilder.ProductAggregate render(Iterable<PricePrediction> predictions, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return render(predictions, writer);
+        }
+    }
+
+    public String renderToString(List<PricePrediction> predictions) {
+        StringWriter writer = new StringWriter(64 + predictions.size() * 48);
+        try {
+            render(predictions, writer);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringWriter cannot fail", e);
+        }
+        return writer.toString();
+    }
+
+    private static char[] flush(StringBuilder buffer, char[] chars, Writer out) throws IOException {
+        int length = buffer.length();
+        if (chars.length < length) {
+            chars = new char[length];
+        }
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        buffer.setLength(0);
+        return chars;
+    }
+
+    private void appendSegments(StringBuilder buffer, Segment[] segments, PricePrediction prediction,
+                                ProductType product, PromptBuilder.ProductAggregate aggregate,
+                                Map<ProductType, PromptBuilder.ProductAggregate> byProduct) {
+        for (Segment segment : segments) {
+            if (segment.field() == null) {
+                buffer.append(segment.literal());
+                continue;
+            }
+            switch (segment.field()) {
+                case PRODUCT -> buffer.append(prediction != null
+                        ? prediction.productType().getFrenchName() : product.getFrenchName());
+                case DATE -> buffer.append(prediction.predictionDate());
+                case PRICE -> appendFixed(buffer, prediction.predictedPrice(), 2);
+                case CONFIDENCE -> appendFixed(buffer, prediction.confidence() * 100, 1);
+                case MODEL -> buffer.append(prediction.modelName());
+                case STATUS -> buffer.append(prediction.status());
+                case COUNT -> buffer.append(aggregate.count());
+                case AVG_PRICE -> appendFixed(buffer, aggregate.mean(), 2);
+                case MIN_PRICE -> appendFixed(buffer, aggregate.min(), 2);
+                case MAX_PRICE -> appendFixed(buffer, aggregate.max(), 2);
+                case AVG_CONFIDENCE -> appendFixed(buffer, aggregate.meanConfidence() * 100, 1);
+                case SECTIONS -> byProduct.forEach((sectionProduct, sectionAggregate) ->
+                        appendSegments(buffer, section, null, sectionProduct, sectionAggregate, null));
+            }
+        }
+    }
+
+    // Fixed-point formatting without String.format; on exact decimal ties such as 1.005 it may round
+    // one unit lower than %.Nf, since it rounds the binary value rather than its decimal form
+    static void appendFixed(StringBuilder buffer, double value, int decimals) {
+        long scale = POWERS_OF_TEN[decimals];
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= Long.MAX_VALUE / (double) scale) {
+            buffer.append(String.format(java.util.Locale.US, "%." + decimals + "f", value));
+            return;
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            buffer.append('-');
+        }
+        buffer.append(scaled / scale);
+        if (decimals > 0) {
+            buffer.append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) {
+                buffer.append('0');
+            }
+            buffer.append(fraction);
+        }
+    }
+}
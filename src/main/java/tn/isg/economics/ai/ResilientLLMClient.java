@@ -0,0 +1,52 @@
+package tn.isg.economics.ai;
+
+import tn.isg.economics.exception.ModelException;
+import tn.isg.economics.util.AsyncLogger;
+
+public class ResilientLLMClient {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(ResilientLLMClient.class);
+
+    @FunctionalInterface
+    public interface Backend {
+        String generate(String prompt) throws Exception;
+    }
+
+    private final Backend backend;
+    private final CircuitBreaker circuitBreaker;
+    private final String description;
+
+    public ResilientLLMClient(Backend backend, CircuitBreaker circuitBreaker, String description) {
+        this.backend = backend;
+        this.circuitBreaker = circuitBreaker;
+        this.description = description;
+    }
+
+    public String generate(String prompt) throws ModelException {
+        if (!circuitBreaker.allowRequest()) {
+            throw new ModelException(description + " circuit is open - backend marked unhealthy");
+        }
+        try {
+            String response = backend.generate(prompt);
+            circuitBreaker.recordSuccess();
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.recordCancelled();
+            throw new ModelException(description + " call interrupted", e);
+        } catch (Exception e) {
+            circuitBreaker.recordFailure();
+            if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+                logger.warning(() -> description + " circuit opened after: " + e.getMessage());
+            }
+            throw new ModelException(description + " call failed: " + e.getMessage(), e);
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,34 @@
+package tn.isg.economics.ai;
+
+public record StreamedReport(
+        String text,
+        int tokenCount,
+        long timeToFirstTokenMillis,
+        long totalMillis,
+        boolean fromFallback
+) {
+    public double getTokensPerSecond() {
+        long streamingMillis = totalMillis - timeToFirstTokenMillis;
+        if (tokenCount <= 1 || streamingMillis <= 0) {
+            return 0.0;
+        }
+        return (tokenCount - 1) * 1000.0 / streamingMillis;
+    }
+
+    public String toFormattedString() {
+        return String.format("""
+            === STREAMING STATISTICS ===
+            Tokens: %d
+            Time to first token: %d ms
+            Total time: %d ms
+            Throughput: %.1f tokens/s
+            Source: %s
+            """,
+                tokenCount,
+                timeToFirstTokenMillis,
+                totalMillis,
+                getTokensPerSecond(),
+                fromFallback ? "Fallback (basic analysis)" : "LLM stream"
+        );
+    }
+}
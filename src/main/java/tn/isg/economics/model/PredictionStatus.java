@@ -1,5 +1,5 @@
 package tn.isg.economics.model;
 
 public enum PredictionStatus {
-    PENDING , COMPLETED , FAILED , LOW_CONFIDENCE
+    PENDING , COMPLETED , FAILED , LOW_CONFIDENCE , SHED
 }
\ No newline at end of file
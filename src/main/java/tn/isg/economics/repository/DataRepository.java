@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+// The getAll* lists may be read-only snapshots; copy them before modifying
 public interface DataRepository {
     boolean saveExportData(ExportData exportData);
     List<ExportData> getAllExportData();
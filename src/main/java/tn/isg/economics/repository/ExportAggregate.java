@@ -0,0 +1,33 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+
+// Mergeable partial aggregate, so shards can summarize locally and only the summaries cross the wire
+public record ExportAggregate(
+        long count,
+        double sumPrice,
+        double minPrice,
+        double maxPrice,
+        double totalVolume
+) {
+    public static final ExportAggregate EMPTY =
+            new ExportAggregate(0, 0.0, Double.MAX_VALUE, -Double.MAX_VALUE, 0.0);
+
+    public static ExportAggregate of(ExportData export) {
+        return new ExportAggregate(1, export.pricePerTon(), export.pricePerTon(), export.pricePerTon(),
+                export.volume());
+    }
+
+    public ExportAggregate merge(ExportAggregate other) {
+        return new ExportAggregate(
+                count + other.count,
+                sumPrice + other.sumPrice,
+                Math.min(minPrice, other.minPrice),
+                Math.max(maxPrice, other.maxPrice),
+                totalVolume + other.totalVolume);
+    }
+
+    public double averagePrice() {
+        return count == 0 ? 0.0 : sumPrice / count;
+    }
+}
@@ -0,0 +1,247 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.util.AsyncLogger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+// Detects re-delivered export records within a fixed off-heap memory budget.
+// Each record is reduced to a 64-bit fingerprint of all its fields. A cache-line-blocked Bloom filter
+// (one 512-bit block per fingerprint, so one memory access) answers "definitely new" for most records;
+// only possible duplicates are confirmed against an exact open-addressing table of fingerprints.
+// If the exact table fills up, confirmation falls back to the Bloom filter alone and the expected
+// false-positive rate is reported instead of being zero.
+public class ExportDeduplicator {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(ExportDeduplicator.class);
+    private static final int LONGS_PER_BLOCK = 8;
+    private static final int BITS_PER_KEY = 8;
+    private static final int HASHES = 6;
+    private static final int SEGMENT_SHIFT = 24; // 2^24 longs = 128 MB per direct buffer
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final double MAX_LOAD = 0.75;
+    private static final long EMPTY = 0L;
+    private static final long ZERO_FINGERPRINT = 0x9E3779B97F4A7C15L;
+    private final LongBuffer[] bloom;
+    private final long bloomBlocks;
+    private final LongBuffer[] table;
+    private final long tableMask;
+    private final long maxEntries;
+    private final long memoryBytes;
+    private long entries;
+    private long checked;
+    private long duplicates;
+    private long bloomFalsePositives;
+    private boolean saturated;
+
+    public ExportDeduplicator(long memoryBudgetBytes) {
+        if (memoryBudgetBytes < 1024 * 1024) {
+            throw new IllegalArgumentException("Deduplication budget must be at least 1 MB");
+        }
+        // Per key: BITS_PER_KEY / 8 bytes of Bloom filter + 8 / MAX_LOAD bytes of exact table
+        double bytesPerKey = BITS_PER_KEY / 8.0 + Long.BYTES / MAX_LOAD;
+        long slots = Long.highestOneBit((long) (memoryBudgetBytes / bytesPerKey / MAX_LOAD));
+        long bloomBytes = Math.max(64, memoryBudgetBytes - slots * Long.BYTES);
+        this.bloomBlocks = bloomBytes / (LONGS_PER_BLOCK * Long.BYTES);
+        this.bloom = allocate(bloomBlocks * LONGS_PER_BLOCK);
+        this.table = allocate(slots);
+        this.tableMask = slots - 1;
+        this.maxEntries = (long) (slots * MAX_LOAD);
+        this.memoryBytes = (bloomBlocks * LONGS_PER_BLOCK + slots) * Long.BYTES;
+    }
+
+    private static LongBuffer[] allocate(long longs) {
+        int segments = (int) ((longs + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+        LongBuffer[] buffers = new LongBuffer[segments];
+        for (int i = 0; i < segments; i++) {
+            int size = (int) Math.min(SEGMENT_SIZE, longs - ((long) i << SEGMENT_SHIFT));
+            buffers[i] = ByteBuffer.allocateDirect(size * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        return buffers;
+    }
+
+    private static long get(LongBuffer[] buffers, long index) {
+        return buffers[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & (SEGMENT_SIZE - 1)));
+    }
+
+    private static void put(LongBuffer[] buffers, long index, long value) {
+        buffers[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & (SEGMENT_SIZE - 1)), value);
+    }
+
+    public static long fingerprint(ExportData export) {
+        long h = 0x27D4EB2F165667C5L;
+        h = mix(h, export.date().toEpochDay());
+        h = mix(h, export.productType().ordinal());
+        h = mix(h, Double.doubleToLongBits(export.pricePerTon()));
+        h = mix(h, Double.doubleToLongBits(export.volume()));
+        String country = export.destinationCountry();
+        if (country != null) {
+            for (int i = 0; i < country.length(); i++) {
+                h = mix(h, country.charAt(i));
+            }
+        }
+        // -1 keeps a null country apart from an empty one
+        h = mix(h, country != null ? country.length() : -1);
+        h = mix(h, export.indicator().ordinal());
+        return finish(h);
+    }
+
+    private static long mix(long h, long value) {
+        return Long.rotateLeft(h ^ (value * 0xC2B2AE3D27D4EB4FL), 31) * 0x9E3779B97F4A7C15L;
+    }
+
+    // MurmurHash3 fmix64 finalizer
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // True if the record has not been seen before (and is now remembered), false for a duplicate
+    public synchronized boolean addIfAbsent(ExportData export) {
+        checked++;
+        long fingerprint = fingerprint(export);
+        if (fingerprint == EMPTY) {
+            fingerprint = ZERO_FINGERPRINT;
+        }
+        boolean maybePresent = bloomContainsOrAdd(fingerprint);
+        if (!maybePresent) {
+            insert(fingerprint);
+            return true;
+        }
+        if (saturated && entries >= maxEntries) {
+            duplicates++;
+            return false;
+        }
+        if (insert(fingerprint)) {
+            bloomFalsePositives++;
+            return true;
+        }
+        duplicates++;
+        return false;
+    }
+
+    private boolean bloomContainsOrAdd(long fingerprint) {
+        long block = Long.remainderUnsigned(fingerprint, bloomBlocks) * LONGS_PER_BLOCK;
+        // Bit positions come from the upper half of the fingerprint, independent of the block choice
+        long bits = fingerprint >>> 32 | fingerprint << 32;
+        boolean present = true;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (int) (bits >>> (i * 9)) & 511;
+            long index = block + (bit >>> 6);
+            long word = get(bloom, index);
+            long mask = 1L << (bit & 63);
+            if ((word & mask) == 0) {
+                present = false;
+                put(bloom, index, word | mask);
+            }
+        }
+        return present;
+    }
+
+    // Linear probing; returns false if the fingerprint was already in the table
+    private boolean insert(long fingerprint) {
+        if (entries >= maxEntries) {
+            if (!saturated) {
+                saturated = true;
+                logger.warning(() -> "Deduplication table full at " + entries
+                        + " fingerprints; falling back to Bloom filter only");
+            }
+            return !contains(fingerprint);
+        }
+        long slot = finish(fingerprint) & tableMask;
+        while (true) {
+            long current = get(table, slot);
+            if (current == EMPTY) {
+                put(table, slot, fingerprint);
+                entries++;
+                return true;
+            }
+            if (current == fingerprint) {
+                return false;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+    }
+
+    private boolean contains(long fingerprint) {
+        long slot = finish(fingerprint) & tableMask;
+        while (true) {
+            long current = get(table, slot);
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == fingerprint) {
+                return true;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+    }
+
+    // Forgets every fingerprint, so records seen before are accepted again; used when the repository is cleared
+    public synchronized void clear() {
+        zero(bloom);
+        zero(table);
+        entries = 0;
+        checked = 0;
+        duplicates = 0;
+        bloomFalsePositives = 0;
+        saturated = false;
+    }
+
+    private static void zero(LongBuffer[] buffers) {
+        for (LongBuffer buffer : buffers) {
+            for (int i = 0; i < buffer.capacity(); i++) {
+                buffer.put(i, EMPTY);
+            }
+        }
+    }
+
+    public synchronized long getCheckedCount() {
+        return checked;
+    }
+
+    public synchronized long getDuplicateCount() {
+        return duplicates;
+    }
+
+    public synchronized long getEntryCount() {
+        return entries;
+    }
+
+    public long getCapacity() {
+        return maxEntries;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized boolean isSaturated() {
+        return saturated;
+    }
+
+    public synchronized String getStatistics() {
+        return String.format(
+                """
+                === DEDUPLICATION ===
+                Records Checked: %d
+                Duplicates Dropped: %d
+                Unique Fingerprints: %d / %d
+                Bloom False Positives: %d
+                Off-heap Memory: %.1f MB
+                Mode: %s
+                """,
+                checked,
+                duplicates,
+                entries,
+                maxEntries,
+                bloomFalsePositives,
+                memoryBytes / (1024.0 * 1024.0),
+                saturated ? "Bloom filter only (table full)" : "Exact"
+        );
+    }
+}
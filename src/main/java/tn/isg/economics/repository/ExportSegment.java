@@ -0,0 +1,93 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Immutable run of exports sorted by date, with its zone map. Never modified after sealing;
+// merging produces a new segment.
+final class ExportSegment {
+    private static final Comparator<ExportData> BY_DATE = Comparator.comparing(ExportData::date);
+    private final ExportData[] records;
+    private final ZoneMap zoneMap;
+
+    private ExportSegment(ExportData[] records) {
+        this.records = records;
+        this.zoneMap = ZoneMap.of(Arrays.asList(records));
+    }
+
+    // records must not be empty; the stable sort keeps arrival order among equal dates
+    static ExportSegment seal(List<ExportData> records) {
+        ExportData[] sorted = records.toArray(new ExportData[0]);
+        Arrays.sort(sorted, BY_DATE);
+        return new ExportSegment(sorted);
+    }
+
+    static ExportSegment merge(List<ExportSegment> segments) {
+        ExportData[] merged = segments.get(0).records;
+        for (int i = 1; i < segments.size(); i++) {
+            merged = mergeSorted(merged, segments.get(i).records);
+        }
+        return new ExportSegment(merged);
+    }
+
+    private static ExportData[] mergeSorted(ExportData[] left, ExportData[] right) {
+        ExportData[] merged = new ExportData[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < left.length && j < right.length) {
+            merged[k++] = right[j].date().isBefore(left[i].date()) ? right[j++] : left[i++];
+        }
+        while (i < left.length) {
+            merged[k++] = left[i++];
+        }
+        while (j < right.length) {
+            merged[k++] = right[j++];
+        }
+        return merged;
+    }
+
+    ZoneMap zoneMap() {
+        return zoneMap;
+    }
+
+    int size() {
+        return records.length;
+    }
+
+    void forEach(Consumer<ExportData> action) {
+        for (ExportData export : records) {
+            action.accept(export);
+        }
+    }
+
+    void scan(Predicate<ExportData> filter, Consumer<ExportData> action) {
+        for (ExportData export : records) {
+            if (filter.test(export)) {
+                action.accept(export);
+            }
+        }
+    }
+
+    // Binary search to the first date in range, then a sequential read to the end of the range
+    void scanDates(LocalDate startDate, LocalDate endDate, Consumer<ExportData> action) {
+        int low = 0;
+        int high = records.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (records[mid].date().isBefore(startDate)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < records.length && !records[i].date().isAfter(endDate); i++) {
+            action.accept(records[i]);
+        }
+    }
+}
@@ -4,18 +4,40 @@ import tn.isg.economics.model.ExportData;
 import tn.isg.economics.model.MarketIndicator;
 import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.CountryDictionary;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class InMemoryDataRepository implements DataRepository {
-    private final List<ExportData> exports;
-    private final List<PricePrediction> predictions;
+    // Country id of each export is kept as its key, so country filters and counts compare ints
+    private final SegmentedList<ExportData> exports = new SegmentedList<>();
+    private final PredictionStore predictions;
+    private final CountryDictionary countries = CountryDictionary.global();
+    private ExportDeduplicator deduplicator;
 
     public InMemoryDataRepository() {
-        this.exports = new ArrayList<>();
-        this.predictions = new ArrayList<>();
+        this(new PredictionStore());
+    }
+
+    // Use a PredictionStore with retention to cap how many predictions are kept
+    public InMemoryDataRepository(PredictionStore predictions) {
+        this.predictions = predictions;
+    }
+
+    public PredictionStore getPredictionStore() {
+        return predictions;
+    }
+
+    // Optional: re-delivered records are dropped on save instead of being stored twice
+    public void enableDeduplication(ExportDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    public ExportDeduplicator getDeduplicator() {
+        return deduplicator;
     }
 
     @Override
@@ -23,7 +45,11 @@ public class InMemoryDataRepository implements DataRepository {
         if (exportData == null) {
             return false;
         }
-        return exports.add(exportData);
+        if (deduplicator != null && !deduplicator.addIfAbsent(exportData)) {
+            return false;
+        }
+        exports.append(exportData, countries.idOf(exportData.destinationCountry()));
+        return true;
     }
 
     public int saveAllExportData(List<ExportData> exportDataList) {
@@ -41,7 +67,7 @@ public class InMemoryDataRepository implements DataRepository {
 
     @Override
     public List<ExportData> getAllExportData() {
-        return new ArrayList<>(exports); // Return copy to prevent external modification
+        return exports.snapshot(); // Immutable view; later saves do not show up in it
     }
 
     @Override
@@ -49,7 +75,7 @@ public class InMemoryDataRepository implements DataRepository {
         if (startDate == null || endDate == null) {
             return new ArrayList<>();
         }
-        return exports.stream()
+        return exports.snapshot().stream()
                 .filter(export -> !export.date().isBefore(startDate) && !export.date().isAfter(endDate))
                 .collect(Collectors.toList());
     }
@@ -58,7 +84,7 @@ public class InMemoryDataRepository implements DataRepository {
         if (productType == null) {
             return new ArrayList<>();
         }
-        return exports.stream()
+        return exports.snapshot().stream()
                 .filter(export -> export.productType() == productType)
                 .collect(Collectors.toList());
     }
@@ -67,28 +93,37 @@ public class InMemoryDataRepository implements DataRepository {
         if (country == null || country.isEmpty()) {
             return new ArrayList<>();
         }
-        return exports.stream()
-                .filter(export -> export.destinationCountry().equalsIgnoreCase(country))
-                .collect(Collectors.toList());
+        int id = countries.find(country);
+        List<ExportData> result = new ArrayList<>();
+        if (id < 0) {
+            return result;
+        }
+        SegmentedList.View<ExportData> snapshot = exports.snapshot();
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.key(i) == id) {
+                result.add(snapshot.get(i));
+            }
+        }
+        return result;
     }
 
     public List<ExportData> findByMarketIndicator(MarketIndicator indicator) {
         if (indicator == null) {
             return new ArrayList<>();
         }
-        return exports.stream()
+        return exports.snapshot().stream()
                 .filter(export -> export.indicator() == indicator)
                 .collect(Collectors.toList());
     }
 
     public List<ExportData> findByPriceRange(double minPrice, double maxPrice) {
-        return exports.stream()
+        return exports.snapshot().stream()
                 .filter(export -> export.pricePerTon() >= minPrice && export.pricePerTon() <= maxPrice)
                 .collect(Collectors.toList());
     }
 
     public List<ExportData> findByVolumeRange(double minVolume, double maxVolume) {
-        return exports.stream()
+        return exports.snapshot().stream()
                 .filter(export -> export.volume() >= minVolume && export.volume() <= maxVolume)
                 .collect(Collectors.toList());
     }
@@ -97,70 +132,60 @@ public class InMemoryDataRepository implements DataRepository {
         if (date == null) {
             return new ArrayList<>();
         }
-        return exports.stream()
+        return exports.snapshot().stream()
                 .filter(export -> export.date().equals(date))
                 .collect(Collectors.toList());
     }
 
     @Override
     public boolean savePrediction(PricePrediction prediction) {
-        if (prediction == null) {
-            return false;
-        }
         return predictions.add(prediction);
     }
 
     public int saveAllPredictions(List<PricePrediction> predictionList) {
-        if (predictionList == null || predictionList.isEmpty()) {
-            return 0;
-        }
-        int saved = 0;
-        for (PricePrediction prediction : predictionList) {
-            if (savePrediction(prediction)) {
-                saved++;
-            }
-        }
-        return saved;
+        return predictions.addAll(predictionList);
     }
 
     @Override
     public List<PricePrediction> getAllPredictions() {
-        return new ArrayList<>(predictions); // Return copy
+        return predictions.getAll();
     }
 
     public List<PricePrediction> findPredictionsByProduct(ProductType productType) {
         if (productType == null) {
             return new ArrayList<>();
         }
-        return predictions.stream()
-                .filter(pred -> pred.productType() == productType)
-                .collect(Collectors.toList());
+        return predictions.findByProduct(productType);
     }
 
+    // Highest confidence first
     public List<PricePrediction> findPredictionsByConfidence(double minConfidence) {
-        return predictions.stream()
-                .filter(pred -> pred.confidence() >= minConfidence)
-                .collect(Collectors.toList());
+        return predictions.findByConfidence(minConfidence);
+    }
+
+    public List<PricePrediction> findTopPredictionsByConfidence(int limit) {
+        return predictions.topByConfidence(limit);
     }
 
     public List<PricePrediction> findPredictionsByDateRange(LocalDate startDate, LocalDate endDate) {
         if (startDate == null || endDate == null) {
             return new ArrayList<>();
         }
-        return predictions.stream()
-                .filter(pred -> !pred.predictionDate().isBefore(startDate) &&
-                        !pred.predictionDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        return predictions.findByDateRange(startDate, endDate);
     }
 
     @Override
     public void clearAll() {
-        exports.clear();
+        clearExports();
         predictions.clear();
     }
 
+    // Cleared records may be saved again, so the deduplicator must forget them too
     public void clearExports() {
         exports.clear();
+        if (deduplicator != null) {
+            deduplicator.clear();
+        }
     }
 
     public void clearPredictions() {
@@ -176,7 +201,16 @@ public class InMemoryDataRepository implements DataRepository {
     }
 
     public boolean isEmpty() {
-        return exports.isEmpty() && predictions.isEmpty();
+        return exports.size() == 0 && predictions.size() == 0;
+    }
+
+    private int countDistinctCountries() {
+        BitSet seen = new BitSet(countries.size());
+        SegmentedList.View<ExportData> snapshot = exports.snapshot();
+        for (int i = 0; i < snapshot.size(); i++) {
+            seen.set(snapshot.key(i));
+        }
+        return seen.cardinality();
     }
 
     public String getRepositoryStats() {
@@ -186,12 +220,14 @@ public class InMemoryDataRepository implements DataRepository {
             Total Predictions: %d
             Unique Products: %d
             Unique Countries: %d
+            Duplicates Dropped: %d
             ============================
             """,
                 exports.size(),
                 predictions.size(),
-                exports.stream().map(ExportData::productType).distinct().count(),
-                exports.stream().map(ExportData::destinationCountry).distinct().count()
+                exports.snapshot().stream().map(ExportData::productType).distinct().count(),
+                countDistinctCountries(),
+                deduplicator != null ? deduplicator.getDuplicateCount() : 0
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// In-process shard: an InMemoryDataRepository guarded by a read-write lock so queries run concurrently
+public class LocalShard implements RepositoryShard {
+    private final InMemoryDataRepository repository = new InMemoryDataRepository();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public int saveExports(List<ExportData> exports) {
+        return write(() -> repository.saveAllExportData(exports));
+    }
+
+    @Override
+    public int savePredictions(List<PricePrediction> predictions) {
+        return write(() -> repository.saveAllPredictions(predictions));
+    }
+
+    @Override
+    public List<ExportData> getAllExportData() {
+        return read(repository::getAllExportData);
+    }
+
+    @Override
+    public List<ExportData> getExportDataByDateRange(LocalDate startDate, LocalDate endDate) {
+        return read(() -> repository.getExportDataByDateRange(startDate, endDate));
+    }
+
+    @Override
+    public List<ExportData> findByProduct(ProductType productType) {
+        return read(() -> repository.findByProduct(productType));
+    }
+
+    @Override
+    public List<ExportData> findByPriceRange(double minPrice, double maxPrice) {
+        return read(() -> repository.findByPriceRange(minPrice, maxPrice));
+    }
+
+    @Override
+    public Map<ProductType, ExportAggregate> aggregateByProduct(LocalDate startDate, LocalDate endDate) {
+        return read(() -> {
+            Map<ProductType, ExportAggregate> aggregates = new EnumMap<>(ProductType.class);
+            for (ExportData export : repository.getExportDataByDateRange(startDate, endDate)) {
+                aggregates.merge(export.productType(), ExportAggregate.of(export), ExportAggregate::merge);
+            }
+            return aggregates;
+        });
+    }
+
+    @Override
+    public List<PricePrediction> getAllPredictions() {
+        return read(repository::getAllPredictions);
+    }
+
+    @Override
+    public long getExportCount() {
+        return read(repository::getExportCount);
+    }
+
+    @Override
+    public void clearAll() {
+        write(() -> {
+            repository.clearAll();
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        clearAll();
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> update) {
+        lock.writeLock().lock();
+        try {
+            return update.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
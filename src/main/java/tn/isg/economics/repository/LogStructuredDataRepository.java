@@ -0,0 +1,370 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.AsyncLogger;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Persistent DataRepository. Every change is appended to a checksummed write-ahead log (group-committed)
+// before the call returns; a full snapshot is taken periodically and the log generations it covers are
+// deleted. On startup the latest snapshot is mapped and only the log written after it is replayed.
+// A failed log write stops the repository: that call and every later change throw, so nothing is ever
+// reported saved that a restart would not recover.
+//
+// Files in the directory: snapshot-<g>.snap holds everything logged in generations below g;
+// wal-<g>.log holds the changes made while generation g was current.
+public final class LogStructuredDataRepository implements DataRepository, AutoCloseable {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(LogStructuredDataRepository.class);
+    private static final Pattern GENERATION_FILE = Pattern.compile("(wal|snapshot)-(\\d+)\\.(log|snap)");
+    private static final byte EXPORT = 1;
+    private static final byte PREDICTION = 2;
+    private static final byte CLEAR = 3;
+    private final Path directory;
+    private final InMemoryDataRepository state = new InMemoryDataRepository();
+    // Changes are applied and logged under the write lock so the log replays in the order they were seen
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final WriteAheadLog log;
+    private final ScheduledExecutorService snapshotScheduler;
+    private long changesSinceSnapshot;
+    private long snapshotsTaken;
+    private long lastSnapshotMillis;
+    private long snapshotGeneration;
+    private final long recoveredFromSnapshot;
+    private final long recoveredFromLog;
+    private final long recoveryMillis;
+
+    public LogStructuredDataRepository(Path directory) throws IOException {
+        this(directory, Duration.ofMinutes(1), true);
+    }
+
+    // syncOnCommit=false skips the fsync per group commit: a crash can then lose the last few writes,
+    // but the log stays consistent
+    public LogStructuredDataRepository(Path directory, Duration snapshotInterval, boolean syncOnCommit)
+            throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        TreeMap<Long, Path> logs = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = GENERATION_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    (matcher.group(1).equals("wal") ? logs : snapshots).put(Long.parseLong(matcher.group(2)), file);
+                }
+            });
+        }
+
+        long fromSnapshot = 0;
+        for (var entry : snapshots.descendingMap().entrySet()) {
+            try {
+                SnapshotFile.Contents contents = SnapshotFile.read(entry.getValue());
+                state.saveAllExportData(contents.exports());
+                state.saveAllPredictions(contents.predictions());
+                fromSnapshot = contents.exports().size() + contents.predictions().size();
+                snapshotGeneration = entry.getKey();
+                break;
+            } catch (IOException e) {
+                logger.severe(() -> "Skipping unreadable snapshot: " + e.getMessage()
+                        + "; changes only it contained are lost");
+            }
+        }
+
+        long fromLog = 0;
+        for (Path file : logs.tailMap(snapshotGeneration).values()) {
+            fromLog += WriteAheadLog.replay(file, this::apply);
+        }
+
+        long lastGeneration = Math.max(snapshotGeneration,
+                Math.max(logs.isEmpty() ? 0 : logs.lastKey(), snapshots.isEmpty() ? 0 : snapshots.lastKey()));
+        this.log = new WriteAheadLog(directory, lastGeneration + 1, syncOnCommit);
+        this.changesSinceSnapshot = fromLog;
+        this.recoveredFromSnapshot = fromSnapshot;
+        this.recoveredFromLog = fromLog;
+        this.recoveryMillis = (System.nanoTime() - start) / 1_000_000;
+        deleteGenerationsBefore(snapshotGeneration);
+        logger.info(() -> String.format("Recovered %d records from snapshot and %d from log in %d ms",
+                recoveredFromSnapshot, recoveredFromLog, recoveryMillis));
+
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("snapshot-scheduler").daemon(true).factory());
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotIfChanged, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void apply(ByteBuffer payload) {
+        switch (payload.get()) {
+            case EXPORT -> state.saveExportData(RecordCodec.getExport(payload));
+            case PREDICTION -> state.savePrediction(RecordCodec.getPrediction(payload));
+            case CLEAR -> state.clearAll();
+            default -> throw new IllegalStateException("Unknown log record type");
+        }
+    }
+
+    private static ByteBuffer encode(ExportData export) {
+        ByteBuffer payload = ByteBuffer.allocate(1 + RecordCodec.exportSize(export)).put(EXPORT);
+        RecordCodec.putExport(payload, export);
+        return payload.flip();
+    }
+
+    private static ByteBuffer encode(PricePrediction prediction) {
+        ByteBuffer payload = ByteBuffer.allocate(1 + RecordCodec.predictionSize(prediction)).put(PREDICTION);
+        RecordCodec.putPrediction(payload, prediction);
+        return payload.flip();
+    }
+
+    @Override
+    public boolean saveExportData(ExportData exportData) {
+        if (exportData == null) {
+            return false;
+        }
+        return saveAllExportData(List.of(exportData)) == 1;
+    }
+
+    // One log commit for the whole list
+    public int saveAllExportData(List<ExportData> exportDataList) {
+        if (exportDataList == null || exportDataList.isEmpty()) {
+            return 0;
+        }
+        List<ByteBuffer> payloads = new ArrayList<>(exportDataList.size());
+        for (ExportData export : exportDataList) {
+            payloads.add(export == null ? null : encode(export));
+        }
+        int saved = 0;
+        long sequence = 0;
+        lock.writeLock().lock();
+        try {
+            log.ensureWritable();
+            for (int i = 0; i < payloads.size(); i++) {
+                if (payloads.get(i) != null && state.saveExportData(exportDataList.get(i))) {
+                    sequence = log.append(payloads.get(i));
+                    saved++;
+                }
+            }
+            changesSinceSnapshot += saved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (saved > 0) {
+            log.awaitDurable(sequence);
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean savePrediction(PricePrediction prediction) {
+        if (prediction == null) {
+            return false;
+        }
+        return saveAllPredictions(List.of(prediction)) == 1;
+    }
+
+    public int saveAllPredictions(List<PricePrediction> predictionList) {
+        if (predictionList == null || predictionList.isEmpty()) {
+            return 0;
+        }
+        List<ByteBuffer> payloads = new ArrayList<>(predictionList.size());
+        for (PricePrediction prediction : predictionList) {
+            payloads.add(prediction == null ? null : encode(prediction));
+        }
+        int saved = 0;
+        long sequence = 0;
+        lock.writeLock().lock();
+        try {
+            log.ensureWritable();
+            for (int i = 0; i < payloads.size(); i++) {
+                if (payloads.get(i) != null && state.savePrediction(predictionList.get(i))) {
+                    sequence = log.append(payloads.get(i));
+                    saved++;
+                }
+            }
+            changesSinceSnapshot += saved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (saved > 0) {
+            log.awaitDurable(sequence);
+        }
+        return saved;
+    }
+
+    @Override
+    public void clearAll() {
+        long sequence;
+        lock.writeLock().lock();
+        try {
+            log.ensureWritable();
+            state.clearAll();
+            sequence = log.append(ByteBuffer.wrap(new byte[]{CLEAR}));
+            changesSinceSnapshot++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.awaitDurable(sequence);
+    }
+
+    @Override
+    public List<ExportData> getAllExportData() {
+        return read(state::getAllExportData);
+    }
+
+    @Override
+    public List<ExportData> getExportDataByDateRange(LocalDate startDate, LocalDate endDate) {
+        return read(() -> state.getExportDataByDateRange(startDate, endDate));
+    }
+
+    public List<ExportData> findByProduct(ProductType productType) {
+        return read(() -> state.findByProduct(productType));
+    }
+
+    public List<ExportData> findByPriceRange(double minPrice, double maxPrice) {
+        return read(() -> state.findByPriceRange(minPrice, maxPrice));
+    }
+
+    @Override
+    public List<PricePrediction> getAllPredictions() {
+        return read(state::getAllPredictions);
+    }
+
+    public int getExportCount() {
+        return read(state::getExportCount);
+    }
+
+    public int getPredictionCount() {
+        return read(state::getPredictionCount);
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Seals the current log generation, writes everything up to it as a new snapshot, then deletes
+    // the sealed generations. Writers are blocked only while the log is rotated and the state copied.
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            long start = System.nanoTime();
+            long generation;
+            List<ExportData> exports;
+            List<PricePrediction> predictions;
+            lock.writeLock().lock();
+            try {
+                generation = log.getGeneration() + 1;
+                log.rotate(generation);
+                exports = state.getAllExportData();
+                predictions = state.getAllPredictions();
+                changesSinceSnapshot = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            SnapshotFile.write(SnapshotFile.fileFor(directory, generation), exports, predictions);
+            deleteGenerationsBefore(generation);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            lock.writeLock().lock();
+            try {
+                snapshotGeneration = generation;
+                snapshotsTaken++;
+                lastSnapshotMillis = elapsedMillis;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.fine(() -> "Snapshot " + generation + " written with " + (exports.size() + predictions.size())
+                    + " records in " + elapsedMillis + " ms");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Snapshot failed", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void snapshotIfChanged() {
+        try {
+            if (read(() -> changesSinceSnapshot) > 0) {
+                snapshot();
+            }
+        } catch (RuntimeException e) {
+            logger.warning(() -> "Scheduled snapshot failed: " + e.getMessage());
+        }
+    }
+
+    private void deleteGenerationsBefore(long generation) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = GENERATION_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(2)) < generation) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    public String getPersistenceStatistics() {
+        return read(() -> {
+            long frames = log.getFramesWritten();
+            long commits = log.getGroupCommits();
+            return String.format(
+                    """
+                    === PERSISTENCE ===
+                    Directory: %s
+                    Log Generation: %d
+                    Records Logged: %d
+                    Group Commits: %d (%.1f records/commit)
+                    Snapshots Taken: %d (last: generation %d, %d ms)
+                    Changes Since Snapshot: %d
+                    Recovery: %d from snapshot + %d from log in %d ms
+                    """,
+                    directory,
+                    log.getGeneration(),
+                    frames,
+                    commits,
+                    commits == 0 ? 0.0 : (double) frames / commits,
+                    snapshotsTaken,
+                    snapshotGeneration,
+                    lastSnapshotMillis,
+                    changesSinceSnapshot,
+                    recoveredFromSnapshot,
+                    recoveredFromLog,
+                    recoveryMillis
+            );
+        });
+    }
+
+    // Everything already returned to callers is durable, so closing only stops the background work
+    @Override
+    public void close() throws IOException {
+        snapshotScheduler.shutdownNow();
+        snapshotLock.lock();
+        try {
+            log.close();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.CountryDictionary;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Exports kept outside the Java heap as fixed-width columns, in chunks of 2^20 rows. The heap only holds
+// one small object per chunk, so GC work does not grow with the row count. Scans and aggregates read the
+// columns in place; ExportData objects are created only for the rows a finder returns.
+//
+// Chunks are direct buffers (bounded by -XX:MaxDirectMemorySize) or, given a spill directory, mapped
+// files, which the OS pages in and out and which do not count against that limit. The spill files are
+// scratch space deleted on close and clearAll, not a persistent store. Both drop every chunk; the memory
+// is released once the GC collects the unreachable buffers.
+public class OffHeapDataRepository implements DataRepository, AutoCloseable {
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    // date (epoch day) + price + volume + country id + product + indicator
+    private static final int ROW_BYTES = Integer.BYTES + 2 * Double.BYTES + Integer.BYTES + 2;
+    private static final ProductType[] PRODUCTS = ProductType.values();
+    private static final MarketIndicator[] INDICATORS = MarketIndicator.values();
+    private final Path spillDirectory;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final CountryDictionary countries = CountryDictionary.global();
+    private final List<PricePrediction> predictions = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long rowCount;
+    private boolean closed;
+
+    // One block holding each column as a contiguous slice
+    private static final class Chunk {
+        private final IntBuffer dates;
+        private final DoubleBuffer prices;
+        private final DoubleBuffer volumes;
+        private final IntBuffer countries;
+        private final ByteBuffer products;
+        private final ByteBuffer indicators;
+
+        Chunk(ByteBuffer block) {
+            block.order(ByteOrder.nativeOrder());
+            int offset = 0;
+            dates = block.slice(offset, CHUNK_ROWS * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+            offset += CHUNK_ROWS * Integer.BYTES;
+            prices = block.slice(offset, CHUNK_ROWS * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            offset += CHUNK_ROWS * Double.BYTES;
+            volumes = block.slice(offset, CHUNK_ROWS * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            offset += CHUNK_ROWS * Double.BYTES;
+            countries = block.slice(offset, CHUNK_ROWS * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+            offset += CHUNK_ROWS * Integer.BYTES;
+            products = block.slice(offset, CHUNK_ROWS);
+            offset += CHUNK_ROWS;
+            indicators = block.slice(offset, CHUNK_ROWS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowFilter {
+        boolean test(Chunk chunk, int row);
+    }
+
+    public OffHeapDataRepository() {
+        this(null);
+    }
+
+    public OffHeapDataRepository(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        if (spillDirectory != null) {
+            try {
+                Files.createDirectories(spillDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create spill directory " + spillDirectory, e);
+            }
+        }
+    }
+
+    private Chunk allocateChunk(int index) {
+        long bytes = (long) CHUNK_ROWS * ROW_BYTES;
+        if (spillDirectory == null) {
+            return new Chunk(ByteBuffer.allocateDirect((int) bytes));
+        }
+        Path file = spillFile(index);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // The mapping stays valid after the channel is closed
+            return new Chunk(channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map spill file " + file, e);
+        }
+    }
+
+    private Path spillFile(int index) {
+        return spillDirectory.resolve(String.format("exports-%06d.col", index));
+    }
+
+    @Override
+    public boolean saveExportData(ExportData exportData) {
+        if (exportData == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            append(exportData);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int saveAllExportData(List<ExportData> exportDataList) {
+        if (exportDataList == null || exportDataList.isEmpty()) {
+            return 0;
+        }
+        int saved = 0;
+        lock.writeLock().lock();
+        try {
+            for (ExportData export : exportDataList) {
+                if (export != null) {
+                    append(export);
+                    saved++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return saved;
+    }
+
+    // Caller holds the write lock
+    private void append(ExportData export) {
+        ensureOpen();
+        int chunkIndex = (int) (rowCount >>> CHUNK_SHIFT);
+        if (chunkIndex == chunks.size()) {
+            chunks.add(allocateChunk(chunkIndex));
+        }
+        Chunk chunk = chunks.get(chunkIndex);
+        int row = (int) (rowCount & CHUNK_MASK);
+        chunk.dates.put(row, Math.toIntExact(export.date().toEpochDay()));
+        chunk.prices.put(row, export.pricePerTon());
+        chunk.volumes.put(row, export.volume());
+        chunk.countries.put(row, countries.idOf(export.destinationCountry()));
+        chunk.products.put(row, (byte) export.productType().ordinal());
+        chunk.indicators.put(row, (byte) export.indicator().ordinal());
+        rowCount++;
+    }
+
+    private ExportData materialize(Chunk chunk, int row) {
+        return new ExportData(
+                LocalDate.ofEpochDay(chunk.dates.get(row)),
+                PRODUCTS[chunk.products.get(row)],
+                chunk.prices.get(row),
+                chunk.volumes.get(row),
+                countries.nameOf(chunk.countries.get(row)),
+                INDICATORS[chunk.indicators.get(row)]);
+    }
+
+    public ExportData get(long index) {
+        lock.readLock().lock();
+        try {
+            if (index < 0 || index >= rowCount) {
+                throw new IndexOutOfBoundsException("Row " + index + " of " + rowCount);
+            }
+            return materialize(chunks.get((int) (index >>> CHUNK_SHIFT)), (int) (index & CHUNK_MASK));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<ExportData> select(RowFilter filter) {
+        lock.readLock().lock();
+        try {
+            List<ExportData> result = new ArrayList<>();
+            long remaining = rowCount;
+            for (Chunk chunk : chunks) {
+                int rows = (int) Math.min(remaining, CHUNK_ROWS);
+                for (int row = 0; row < rows; row++) {
+                    if (filter.test(chunk, row)) {
+                        result.add(materialize(chunk, row));
+                    }
+                }
+                remaining -= rows;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ExportData> getAllExportData() {
+        return select((chunk, row) -> true);
+    }
+
+    @Override
+    public List<ExportData> getExportDataByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            return new ArrayList<>();
+        }
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        return select((chunk, row) -> {
+            int day = chunk.dates.get(row);
+            return day >= start && day <= end;
+        });
+    }
+
+    public List<ExportData> findByProduct(ProductType productType) {
+        if (productType == null) {
+            return new ArrayList<>();
+        }
+        byte ordinal = (byte) productType.ordinal();
+        return select((chunk, row) -> chunk.products.get(row) == ordinal);
+    }
+
+    public List<ExportData> findByPriceRange(double minPrice, double maxPrice) {
+        return select((chunk, row) -> {
+            double price = chunk.prices.get(row);
+            return price >= minPrice && price <= maxPrice;
+        });
+    }
+
+    public List<ExportData> findByCountry(String country) {
+        if (country == null) {
+            return new ArrayList<>();
+        }
+        int id = countries.find(country);
+        return id < 0 ? new ArrayList<>() : select((chunk, row) -> chunk.countries.get(row) == id);
+    }
+
+    public long countByPriceRange(double minPrice, double maxPrice) {
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            long remaining = rowCount;
+            for (Chunk chunk : chunks) {
+                int rows = (int) Math.min(remaining, CHUNK_ROWS);
+                for (int row = 0; row < rows; row++) {
+                    double price = chunk.prices.get(row);
+                    if (price >= minPrice && price <= maxPrice) {
+                        count++;
+                    }
+                }
+                remaining -= rows;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Accumulates straight from the columns into per-product arrays; nothing is allocated per row.
+    // A null bound leaves that side of the date range open.
+    public Map<ProductType, ExportAggregate> aggregateByProduct(LocalDate startDate, LocalDate endDate) {
+        long start = startDate != null ? startDate.toEpochDay() : Long.MIN_VALUE;
+        long end = endDate != null ? endDate.toEpochDay() : Long.MAX_VALUE;
+        long[] counts = new long[PRODUCTS.length];
+        double[] sums = new double[PRODUCTS.length];
+        double[] mins = new double[PRODUCTS.length];
+        double[] maxs = new double[PRODUCTS.length];
+        double[] volumes = new double[PRODUCTS.length];
+        Arrays.fill(mins, ExportAggregate.EMPTY.minPrice());
+        Arrays.fill(maxs, ExportAggregate.EMPTY.maxPrice());
+        lock.readLock().lock();
+        try {
+            long remaining = rowCount;
+            for (Chunk chunk : chunks) {
+                int rows = (int) Math.min(remaining, CHUNK_ROWS);
+                for (int row = 0; row < rows; row++) {
+                    int day = chunk.dates.get(row);
+                    if (day < start || day > end) {
+                        continue;
+                    }
+                    int product = chunk.products.get(row);
+                    double price = chunk.prices.get(row);
+                    counts[product]++;
+                    sums[product] += price;
+                    mins[product] = Math.min(mins[product], price);
+                    maxs[product] = Math.max(maxs[product], price);
+                    volumes[product] += chunk.volumes.get(row);
+                }
+                remaining -= rows;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<ProductType, ExportAggregate> aggregates = new EnumMap<>(ProductType.class);
+        for (int product = 0; product < PRODUCTS.length; product++) {
+            if (counts[product] > 0) {
+                aggregates.put(PRODUCTS[product], new ExportAggregate(counts[product], sums[product],
+                        mins[product], maxs[product], volumes[product]));
+            }
+        }
+        return aggregates;
+    }
+
+    @Override
+    public boolean savePrediction(PricePrediction prediction) {
+        if (prediction == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            return predictions.add(prediction);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PricePrediction> getAllPredictions() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(predictions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Drops the chunks rather than reusing them, so clearing a large repository gives its memory back
+    @Override
+    public void clearAll() {
+        lock.writeLock().lock();
+        try {
+            releaseChunks();
+            predictions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void releaseChunks() {
+        int chunkCount = chunks.size();
+        chunks.clear();
+        rowCount = 0;
+        if (spillDirectory != null) {
+            for (int i = 0; i < chunkCount; i++) {
+                try {
+                    Files.deleteIfExists(spillFile(i));
+                } catch (IOException e) {
+                    // Left for the OS temp cleanup; the mapping is already dropped
+                }
+            }
+        }
+    }
+
+    public long getExportCount() {
+        lock.readLock().lock();
+        try {
+            return rowCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Repository is closed");
+        }
+    }
+
+    public String getStorageStatistics() {
+        lock.readLock().lock();
+        try {
+            long reserved = (long) chunks.size() * CHUNK_ROWS * ROW_BYTES;
+            return String.format(
+                    """
+                    === OFF-HEAP STORAGE ===
+                    Backing: %s
+                    Rows: %d
+                    Chunks: %d x %d rows
+                    Reserved: %.1f MB (%d bytes/row)
+                    Countries in Dictionary: %d
+                    """,
+                    spillDirectory == null ? "direct memory" : "mapped files in " + spillDirectory,
+                    rowCount,
+                    chunks.size(),
+                    CHUNK_ROWS,
+                    reserved / (1024.0 * 1024.0),
+                    ROW_BYTES,
+                    countries.size()
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            releaseChunks();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.AsyncLogger;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Predictions indexed by product and date and by confidence, with optional retention.
+// The per-product count limit is enforced on every save, so the store never holds more than
+// maxPerProduct entries per product; the age limit is enforced by a background evictor.
+public final class PredictionStore implements AutoCloseable {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(PredictionStore.class);
+    private static final ProductType[] PRODUCTS = ProductType.values();
+    private final Duration maxAge;
+    private final int maxPerProduct;
+    private final ScheduledExecutorService evictor;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Save order. Without retention nothing is ever removed, so an append-only list serves getAll as an
+    // O(1) view; with retention entries leave from the middle and getAll shares one copy per version.
+    private final SegmentedList<PricePrediction> saveLog;
+    private final Map<Long, Entry> bySequence;
+    private volatile List<PricePrediction> cachedSnapshot;
+    private final Map<ProductType, ProductIndex> byProduct = new EnumMap<>(ProductType.class);
+    // Highest confidence first; ties in save order
+    private final NavigableSet<Entry> byConfidence = new TreeSet<>((left, right) -> {
+        int order = Double.compare(right.prediction.confidence(), left.prediction.confidence());
+        return order != 0 ? order : Long.compare(left.sequence, right.sequence);
+    });
+    private long nextSequence;
+    private long evictedByAge;
+    private long evictedByCount;
+
+    private record Entry(long sequence, long savedAtNanos, PricePrediction prediction) {
+    }
+
+    private static final class ProductIndex {
+        // Oldest save first, which is also eviction order for both limits
+        private final ArrayDeque<Entry> saveOrder = new ArrayDeque<>();
+        // Each date's entries in save order; the product's oldest entry is always first for its date
+        private final TreeMap<LocalDate, ArrayDeque<Entry>> byDate = new TreeMap<>();
+    }
+
+    // Keeps everything, like the plain list it replaces
+    public PredictionStore() {
+        this(null, Integer.MAX_VALUE, null);
+    }
+
+    // maxAge null disables age eviction; evictionInterval defaults to a tenth of maxAge
+    public PredictionStore(Duration maxAge, int maxPerProduct, Duration evictionInterval) {
+        if (maxPerProduct < 1) {
+            throw new IllegalArgumentException("maxPerProduct must be at least 1");
+        }
+        this.maxAge = maxAge;
+        this.maxPerProduct = maxPerProduct;
+        boolean retained = maxAge != null || maxPerProduct != Integer.MAX_VALUE;
+        this.saveLog = retained ? null : new SegmentedList<>();
+        this.bySequence = retained ? new LinkedHashMap<>() : null;
+        for (ProductType product : PRODUCTS) {
+            byProduct.put(product, new ProductIndex());
+        }
+        if (maxAge != null) {
+            long intervalMillis = Math.max(1, (evictionInterval != null ? evictionInterval : maxAge.dividedBy(10))
+                    .toMillis());
+            this.evictor = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("prediction-evictor").daemon(true).factory());
+            evictor.scheduleWithFixedDelay(this::evictExpiredQuietly, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.evictor = null;
+        }
+    }
+
+    public boolean add(PricePrediction prediction) {
+        if (prediction == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            insert(prediction, System.nanoTime());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int addAll(List<PricePrediction> predictions) {
+        if (predictions == null || predictions.isEmpty()) {
+            return 0;
+        }
+        int saved = 0;
+        long now = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            for (PricePrediction prediction : predictions) {
+                if (prediction != null) {
+                    insert(prediction, now);
+                    saved++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return saved;
+    }
+
+    // Caller holds the write lock
+    private void insert(PricePrediction prediction, long now) {
+        Entry entry = new Entry(nextSequence++, now, prediction);
+        ProductIndex index = byProduct.get(prediction.productType());
+        if (index.saveOrder.size() >= maxPerProduct) {
+            remove(index, index.saveOrder.pollFirst());
+            evictedByCount++;
+        }
+        index.saveOrder.addLast(entry);
+        index.byDate.computeIfAbsent(prediction.predictionDate(), date -> new ArrayDeque<>(2)).addLast(entry);
+        byConfidence.add(entry);
+        if (saveLog != null) {
+            saveLog.append(prediction, 0);
+        } else {
+            bySequence.put(entry.sequence, entry);
+            cachedSnapshot = null;
+        }
+    }
+
+    // Caller holds the write lock; the entry is the product's oldest and has already left saveOrder
+    private void remove(ProductIndex index, Entry entry) {
+        ArrayDeque<Entry> sameDate = index.byDate.get(entry.prediction.predictionDate());
+        sameDate.pollFirst();
+        if (sameDate.isEmpty()) {
+            index.byDate.remove(entry.prediction.predictionDate());
+        }
+        byConfidence.remove(entry);
+        bySequence.remove(entry.sequence);
+        cachedSnapshot = null;
+    }
+
+    // Drops everything saved more than maxAge ago; returns the number evicted
+    public int evictExpired() {
+        if (maxAge == null) {
+            return 0;
+        }
+        long cutoff = System.nanoTime() - maxAge.toNanos();
+        int evicted = 0;
+        lock.writeLock().lock();
+        try {
+            for (ProductIndex index : byProduct.values()) {
+                while (!index.saveOrder.isEmpty() && index.saveOrder.peekFirst().savedAtNanos - cutoff < 0) {
+                    remove(index, index.saveOrder.pollFirst());
+                    evicted++;
+                }
+            }
+            evictedByAge += evicted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return evicted;
+    }
+
+    private void evictExpiredQuietly() {
+        try {
+            int evicted = evictExpired();
+            if (evicted > 0) {
+                logger.fine(() -> "Evicted " + evicted + " expired predictions");
+            }
+        } catch (RuntimeException e) {
+            logger.warning(() -> "Prediction eviction failed: " + e.getMessage());
+        }
+    }
+
+    // Immutable, in save order
+    public List<PricePrediction> getAll() {
+        if (saveLog != null) {
+            return saveLog.snapshot();
+        }
+        List<PricePrediction> snapshot = cachedSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        lock.readLock().lock();
+        try {
+            List<PricePrediction> result = new ArrayList<>(bySequence.size());
+            for (Entry entry : bySequence.values()) {
+                result.add(entry.prediction);
+            }
+            snapshot = Collections.unmodifiableList(result);
+            cachedSnapshot = snapshot;
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // In save order
+    public List<PricePrediction> findByProduct(ProductType productType) {
+        lock.readLock().lock();
+        try {
+            ArrayDeque<Entry> entries = byProduct.get(productType).saveOrder;
+            List<PricePrediction> result = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                result.add(entry.prediction);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // In save order, as the plain list filter returned them; the date index only narrows the search
+    public List<PricePrediction> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return new ArrayList<>();
+        }
+        List<Entry> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (ProductIndex index : byProduct.values()) {
+                index.byDate.subMap(startDate, true, endDate, true).values().forEach(matches::addAll);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingLong(Entry::sequence));
+        List<PricePrediction> result = new ArrayList<>(matches.size());
+        for (Entry entry : matches) {
+            result.add(entry.prediction);
+        }
+        return result;
+    }
+
+    public List<PricePrediction> findByProductAndDateRange(ProductType productType, LocalDate startDate,
+                                                           LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            List<PricePrediction> result = new ArrayList<>();
+            byProduct.get(productType).byDate.subMap(startDate, true, endDate, true).values()
+                    .forEach(entries -> entries.forEach(entry -> result.add(entry.prediction)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Highest confidence first; reads only the matching head of the index
+    public List<PricePrediction> findByConfidence(double minConfidence) {
+        lock.readLock().lock();
+        try {
+            List<PricePrediction> result = new ArrayList<>();
+            for (Entry entry : byConfidence) {
+                if (entry.prediction.confidence() < minConfidence) {
+                    break;
+                }
+                result.add(entry.prediction);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PricePrediction> topByConfidence(int limit) {
+        lock.readLock().lock();
+        try {
+            List<PricePrediction> result = new ArrayList<>(Math.min(limit, byConfidence.size()));
+            Iterator<Entry> entries = byConfidence.iterator();
+            while (result.size() < limit && entries.hasNext()) {
+                result.add(entries.next().prediction);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            if (saveLog != null) {
+                saveLog.clear();
+            } else {
+                bySequence.clear();
+                cachedSnapshot = null;
+            }
+            byConfidence.clear();
+            for (ProductIndex index : byProduct.values()) {
+                index.saveOrder.clear();
+                index.byDate.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return saveLog != null ? saveLog.size() : bySequence.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getStatistics() {
+        lock.readLock().lock();
+        try {
+            return String.format(
+                    """
+                    === PREDICTION STORE ===
+                    Predictions: %d
+                    Retention: %s, %s per product
+                    Evicted by Age: %d
+                    Evicted by Count: %d
+                    """,
+                    saveLog != null ? saveLog.size() : bySequence.size(),
+                    maxAge == null ? "no age limit" : "max age " + maxAge,
+                    maxPerProduct == Integer.MAX_VALUE ? "unlimited" : "at most " + maxPerProduct,
+                    evictedByAge,
+                    evictedByCount
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+    }
+}
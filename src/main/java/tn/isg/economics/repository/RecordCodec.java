@@ -0,0 +1,112 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+// Fixed binary layout of records in write-ahead logs and snapshots
+final class RecordCodec {
+    private static final ProductType[] PRODUCTS = ProductType.values();
+    private static final MarketIndicator[] INDICATORS = MarketIndicator.values();
+    private static final PredictionStatus[] STATUSES = PredictionStatus.values();
+    // date + product + two doubles + string length + indicator/status; a null string has length -1
+    private static final int FIXED_SIZE = Long.BYTES + 1 + 2 * Double.BYTES + Short.BYTES + 1;
+
+    private RecordCodec() {
+    }
+
+    static int exportSize(ExportData export) {
+        return FIXED_SIZE + utf8Length(export.destinationCountry());
+    }
+
+    static int predictionSize(PricePrediction prediction) {
+        return FIXED_SIZE + utf8Length(prediction.modelName());
+    }
+
+    static void putExport(ByteBuffer buffer, ExportData export) {
+        buffer.putLong(export.date().toEpochDay());
+        buffer.put((byte) export.productType().ordinal());
+        buffer.putDouble(export.pricePerTon());
+        buffer.putDouble(export.volume());
+        putString(buffer, export.destinationCountry());
+        buffer.put((byte) export.indicator().ordinal());
+    }
+
+    static ExportData getExport(ByteBuffer buffer) {
+        return new ExportData(
+                LocalDate.ofEpochDay(buffer.getLong()),
+                PRODUCTS[buffer.get()],
+                buffer.getDouble(),
+                buffer.getDouble(),
+                getString(buffer),
+                INDICATORS[buffer.get()]);
+    }
+
+    static void putPrediction(ByteBuffer buffer, PricePrediction prediction) {
+        buffer.putLong(prediction.predictionDate().toEpochDay());
+        buffer.put((byte) prediction.productType().ordinal());
+        buffer.putDouble(prediction.predictedPrice());
+        buffer.putDouble(prediction.confidence());
+        putString(buffer, prediction.modelName());
+        buffer.put((byte) prediction.status().ordinal());
+    }
+
+    static PricePrediction getPrediction(ByteBuffer buffer) {
+        return new PricePrediction(
+                LocalDate.ofEpochDay(buffer.getLong()),
+                PRODUCTS[buffer.get()],
+                buffer.getDouble(),
+                buffer.getDouble(),
+                getString(buffer),
+                STATUSES[buffer.get()]);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long to store: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,196 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Client side of a ShardServer. One persistent connection; calls on the same shard are serialized,
+// calls on different shards run in parallel. Every reply must arrive within the read timeout. A call
+// that fails part-way (timeout, IO error, undecodable reply) leaves the stream mid-frame, so the
+// connection is dropped and the next call opens a new one.
+public class RemoteShard implements RepositoryShard {
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+    private final String host;
+    private final int port;
+    private final String address;
+    private final int readTimeoutMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Written under lock; null until the next call reconnects. Volatile so close() can shut the socket
+    // of a call that is blocked in a read without waiting for the lock.
+    private volatile Connection connection;
+    private volatile boolean closed;
+
+    private record Connection(Socket socket, DataInputStream in, DataOutputStream out) {
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RequestWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    public RemoteShard(String host, int port) throws IOException {
+        this(host, port, DEFAULT_READ_TIMEOUT);
+    }
+
+    // Connects eagerly so a wrong address fails here rather than on the first query
+    public RemoteShard(String host, int port, Duration readTimeout) throws IOException {
+        if (readTimeout.isNegative() || readTimeout.isZero()) {
+            throw new IllegalArgumentException("Read timeout must be positive");
+        }
+        this.host = host;
+        this.port = port;
+        this.address = host + ":" + port;
+        this.readTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, readTimeout.toMillis());
+        this.connection = connect();
+    }
+
+    private Connection connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(readTimeoutMillis);
+            return new Connection(socket, new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private <T> T call(byte opcode, RequestWriter request, ResponseReader<T> response) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Shard " + address + " is closed");
+            }
+            if (connection == null) {
+                connection = connect();
+                if (closed) {
+                    connection.close();
+                    connection = null;
+                    throw new IllegalStateException("Shard " + address + " is closed");
+                }
+            }
+            String error;
+            try {
+                connection.out().writeByte(opcode);
+                request.write(connection.out());
+                connection.out().flush();
+                if (connection.in().readByte() != ShardProtocol.ERROR) {
+                    return response.read(connection.in());
+                }
+                error = connection.in().readUTF();
+            } catch (IOException | RuntimeException e) {
+                connection.close();
+                connection = null;
+                throw e;
+            }
+            // The error reply is a complete frame, so the connection stays usable
+            throw new IllegalStateException("Shard " + address + " failed: " + error);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Shard " + address + " unreachable", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void none(DataOutputStream out) {
+    }
+
+    @Override
+    public int saveExports(List<ExportData> exports) {
+        return call(ShardProtocol.SAVE_EXPORTS, o -> ShardProtocol.writeExports(o, exports), DataInputStream::readInt);
+    }
+
+    @Override
+    public int savePredictions(List<PricePrediction> predictions) {
+        return call(ShardProtocol.SAVE_PREDICTIONS, o -> ShardProtocol.writePredictions(o, predictions),
+                DataInputStream::readInt);
+    }
+
+    @Override
+    public List<ExportData> getAllExportData() {
+        return call(ShardProtocol.ALL_EXPORTS, RemoteShard::none, ShardProtocol::readExports);
+    }
+
+    @Override
+    public List<ExportData> getExportDataByDateRange(LocalDate startDate, LocalDate endDate) {
+        return call(ShardProtocol.DATE_RANGE, o -> {
+            ShardProtocol.writeDate(o, startDate);
+            ShardProtocol.writeDate(o, endDate);
+        }, ShardProtocol::readExports);
+    }
+
+    @Override
+    public List<ExportData> findByProduct(ProductType productType) {
+        return call(ShardProtocol.BY_PRODUCT, o -> o.writeByte(productType.ordinal()), ShardProtocol::readExports);
+    }
+
+    @Override
+    public List<ExportData> findByPriceRange(double minPrice, double maxPrice) {
+        return call(ShardProtocol.PRICE_RANGE, o -> {
+            o.writeDouble(minPrice);
+            o.writeDouble(maxPrice);
+        }, ShardProtocol::readExports);
+    }
+
+    @Override
+    public Map<ProductType, ExportAggregate> aggregateByProduct(LocalDate startDate, LocalDate endDate) {
+        return call(ShardProtocol.AGGREGATE, o -> {
+            ShardProtocol.writeDate(o, startDate);
+            ShardProtocol.writeDate(o, endDate);
+        }, ShardProtocol::readAggregates);
+    }
+
+    @Override
+    public List<PricePrediction> getAllPredictions() {
+        return call(ShardProtocol.ALL_PREDICTIONS, RemoteShard::none, ShardProtocol::readPredictions);
+    }
+
+    @Override
+    public long getExportCount() {
+        return call(ShardProtocol.COUNT, RemoteShard::none, DataInputStream::readLong);
+    }
+
+    @Override
+    public void clearAll() {
+        call(ShardProtocol.CLEAR, RemoteShard::none, i -> null);
+    }
+
+    // Closes the connection only; the data stays with the shard server
+    @Override
+    public void close() {
+        closed = true;
+        Connection current = connection;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
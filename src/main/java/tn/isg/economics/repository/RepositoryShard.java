@@ -0,0 +1,26 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// One partition of a ShardedDataRepository, either in this JVM or behind a loopback socket.
+// Implementations must be safe for concurrent use; remote failures surface as UncheckedIOException.
+public interface RepositoryShard extends AutoCloseable {
+    int saveExports(List<ExportData> exports);
+    int savePredictions(List<PricePrediction> predictions);
+    List<ExportData> getAllExportData();
+    List<ExportData> getExportDataByDateRange(LocalDate startDate, LocalDate endDate);
+    List<ExportData> findByProduct(ProductType productType);
+    List<ExportData> findByPriceRange(double minPrice, double maxPrice);
+    Map<ProductType, ExportAggregate> aggregateByProduct(LocalDate startDate, LocalDate endDate);
+    List<PricePrediction> getAllPredictions();
+    long getExportCount();
+    void clearAll();
+
+    @Override
+    void close();
+}
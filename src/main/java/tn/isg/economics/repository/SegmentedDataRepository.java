@@ -0,0 +1,335 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.AsyncLogger;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Exports are stored per calendar month as immutable, date-sorted segments. Each segment has a zone map,
+// so queries skip whole months and segments that cannot match. New exports collect in a small write
+// buffer per month that is sealed into a segment when full; a background pass seals leftover buffers
+// and merges runs of small segments. Results come back month by month, not in insertion order.
+// Final because the constructor hands this::mergeQuietly to the merger thread.
+public final class SegmentedDataRepository implements DataRepository, AutoCloseable {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(SegmentedDataRepository.class);
+    private final int sealThreshold;
+    private final int targetSegmentSize;
+    private final ConcurrentSkipListMap<YearMonth, Partition> partitions = new ConcurrentSkipListMap<>();
+    private final List<PricePrediction> predictions = new ArrayList<>();
+    private final ScheduledExecutorService merger;
+    private final AtomicLong segmentsScanned = new AtomicLong();
+    private final AtomicLong segmentsPruned = new AtomicLong();
+    private final AtomicLong segmentsMerged = new AtomicLong();
+
+    // One month. Sealed segments are swapped copy-on-write, so readers only lock to pick up references.
+    // Partitions are never removed from the map (a save may already hold one), only emptied in place.
+    private static final class Partition {
+        private List<ExportSegment> segments = List.of();
+        private final List<ExportData> buffer = new ArrayList<>();
+        // Bumped by every clear, so a merge started before it does not put cleared segments back
+        private long clears;
+    }
+
+    private record PartitionView(List<ExportSegment> segments, List<ExportData> buffer) {
+    }
+
+    public SegmentedDataRepository() {
+        this(4096, 65536, Duration.ofSeconds(5));
+    }
+
+    public SegmentedDataRepository(int sealThreshold, int targetSegmentSize, Duration mergeInterval) {
+        if (sealThreshold <= 0 || targetSegmentSize < sealThreshold) {
+            throw new IllegalArgumentException("Need 0 < sealThreshold <= targetSegmentSize");
+        }
+        this.sealThreshold = sealThreshold;
+        this.targetSegmentSize = targetSegmentSize;
+        this.merger = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("segment-merger").daemon(true).factory());
+        long intervalMillis = mergeInterval.toMillis();
+        merger.scheduleWithFixedDelay(this::mergeQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean saveExportData(ExportData exportData) {
+        if (exportData == null) {
+            return false;
+        }
+        Partition partition = partitions.computeIfAbsent(YearMonth.from(exportData.date()), month -> new Partition());
+        synchronized (partition) {
+            partition.buffer.add(exportData);
+            if (partition.buffer.size() >= sealThreshold) {
+                seal(partition);
+            }
+        }
+        return true;
+    }
+
+    public int saveAllExportData(List<ExportData> exportDataList) {
+        if (exportDataList == null) {
+            return 0;
+        }
+        int saved = 0;
+        for (ExportData export : exportDataList) {
+            if (saveExportData(export)) {
+                saved++;
+            }
+        }
+        return saved;
+    }
+
+    // Caller holds the partition lock
+    private static void seal(Partition partition) {
+        List<ExportSegment> sealed = new ArrayList<>(partition.segments.size() + 1);
+        sealed.addAll(partition.segments);
+        sealed.add(ExportSegment.seal(partition.buffer));
+        partition.segments = List.copyOf(sealed);
+        partition.buffer.clear();
+    }
+
+    private static PartitionView view(Partition partition) {
+        synchronized (partition) {
+            return new PartitionView(partition.segments, List.copyOf(partition.buffer));
+        }
+    }
+
+    @Override
+    public List<ExportData> getAllExportData() {
+        List<ExportData> result = new ArrayList<>();
+        for (Partition partition : partitions.values()) {
+            PartitionView view = view(partition);
+            view.segments().forEach(segment -> segment.forEach(result::add));
+            result.addAll(view.buffer());
+        }
+        return result;
+    }
+
+    @Override
+    public List<ExportData> getExportDataByDateRange(LocalDate startDate, LocalDate endDate) {
+        List<ExportData> result = new ArrayList<>();
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            return result;
+        }
+        Collection<Partition> months = partitions.subMap(YearMonth.from(startDate), true,
+                YearMonth.from(endDate), true).values();
+        for (Partition partition : months) {
+            PartitionView view = view(partition);
+            for (ExportSegment segment : view.segments()) {
+                if (segment.zoneMap().mayContainDates(startDate, endDate)) {
+                    segmentsScanned.incrementAndGet();
+                    segment.scanDates(startDate, endDate, result::add);
+                } else {
+                    segmentsPruned.incrementAndGet();
+                }
+            }
+            for (ExportData export : view.buffer()) {
+                if (!export.date().isBefore(startDate) && !export.date().isAfter(endDate)) {
+                    result.add(export);
+                }
+            }
+        }
+        return result;
+    }
+
+    public List<ExportData> findByProduct(ProductType productType) {
+        return scan(zoneMap -> zoneMap.mayContain(productType), export -> export.productType() == productType);
+    }
+
+    public List<ExportData> findByMarketIndicator(MarketIndicator indicator) {
+        return scan(zoneMap -> zoneMap.mayContain(indicator), export -> export.indicator() == indicator);
+    }
+
+    public List<ExportData> findByPriceRange(double minPrice, double maxPrice) {
+        return scan(zoneMap -> zoneMap.mayContainPrices(minPrice, maxPrice),
+                export -> export.pricePerTon() >= minPrice && export.pricePerTon() <= maxPrice);
+    }
+
+    public List<ExportData> findByVolumeRange(double minVolume, double maxVolume) {
+        return scan(zoneMap -> zoneMap.mayContainVolumes(minVolume, maxVolume),
+                export -> export.volume() >= minVolume && export.volume() <= maxVolume);
+    }
+
+    private List<ExportData> scan(Predicate<ZoneMap> mayMatch, Predicate<ExportData> filter) {
+        List<ExportData> result = new ArrayList<>();
+        Consumer<ExportData> collector = result::add;
+        for (Partition partition : partitions.values()) {
+            PartitionView view = view(partition);
+            for (ExportSegment segment : view.segments()) {
+                if (mayMatch.test(segment.zoneMap())) {
+                    segmentsScanned.incrementAndGet();
+                    segment.scan(filter, collector);
+                } else {
+                    segmentsPruned.incrementAndGet();
+                }
+            }
+            for (ExportData export : view.buffer()) {
+                if (filter.test(export)) {
+                    result.add(export);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Seals every non-empty write buffer, then merges adjacent segments of each month as long as the
+    // merged segment stays within the target size. Returns the number of segments merged away.
+    public synchronized int mergeSmallSegments() {
+        int merged = 0;
+        for (Partition partition : partitions.values()) {
+            List<ExportSegment> current;
+            long clears;
+            synchronized (partition) {
+                if (!partition.buffer.isEmpty()) {
+                    seal(partition);
+                }
+                current = partition.segments;
+                clears = partition.clears;
+            }
+            List<ExportSegment> compacted = compact(current);
+            if (compacted.size() == current.size()) {
+                continue;
+            }
+            synchronized (partition) {
+                if (partition.clears != clears) {
+                    continue;
+                }
+                // Only seals can have happened meanwhile, and they append; keep what they added
+                List<ExportSegment> replaced = new ArrayList<>(compacted);
+                replaced.addAll(partition.segments.subList(current.size(), partition.segments.size()));
+                partition.segments = List.copyOf(replaced);
+            }
+            merged += current.size() - compacted.size();
+        }
+        segmentsMerged.addAndGet(merged);
+        return merged;
+    }
+
+    private List<ExportSegment> compact(List<ExportSegment> segments) {
+        List<ExportSegment> compacted = new ArrayList<>();
+        List<ExportSegment> run = new ArrayList<>();
+        int runSize = 0;
+        for (ExportSegment segment : segments) {
+            if (runSize + segment.size() > targetSegmentSize && !run.isEmpty()) {
+                compacted.add(run.size() == 1 ? run.get(0) : ExportSegment.merge(run));
+                run.clear();
+                runSize = 0;
+            }
+            run.add(segment);
+            runSize += segment.size();
+        }
+        if (!run.isEmpty()) {
+            compacted.add(run.size() == 1 ? run.get(0) : ExportSegment.merge(run));
+        }
+        return compacted;
+    }
+
+    private void mergeQuietly() {
+        try {
+            int merged = mergeSmallSegments();
+            if (merged > 0) {
+                logger.fine(() -> "Merged " + merged + " small segments");
+            }
+        } catch (RuntimeException e) {
+            logger.warning(() -> "Segment merge failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean savePrediction(PricePrediction prediction) {
+        if (prediction == null) {
+            return false;
+        }
+        synchronized (predictions) {
+            return predictions.add(prediction);
+        }
+    }
+
+    @Override
+    public List<PricePrediction> getAllPredictions() {
+        synchronized (predictions) {
+            return new ArrayList<>(predictions);
+        }
+    }
+
+    // Empties each month under its lock. A save racing the clear lands either before it (and is cleared)
+    // or after it (and is kept); it is never reported saved into a partition that has been dropped.
+    @Override
+    public void clearAll() {
+        for (Partition partition : partitions.values()) {
+            synchronized (partition) {
+                partition.segments = List.of();
+                partition.buffer.clear();
+                partition.clears++;
+            }
+        }
+        synchronized (predictions) {
+            predictions.clear();
+        }
+    }
+
+    public long getExportCount() {
+        long count = 0;
+        for (Partition partition : partitions.values()) {
+            synchronized (partition) {
+                count += partition.buffer.size();
+                for (ExportSegment segment : partition.segments) {
+                    count += segment.size();
+                }
+            }
+        }
+        return count;
+    }
+
+    public String getSegmentStatistics() {
+        int months = 0;
+        int segments = 0;
+        int buffered = 0;
+        for (Partition partition : partitions.values()) {
+            synchronized (partition) {
+                if (!partition.segments.isEmpty() || !partition.buffer.isEmpty()) {
+                    months++;
+                }
+                segments += partition.segments.size();
+                buffered += partition.buffer.size();
+            }
+        }
+        long scanned = segmentsScanned.get();
+        long pruned = segmentsPruned.get();
+        return String.format(
+                """
+                === SEGMENTS ===
+                Partitions (months): %d
+                Sealed Segments: %d
+                Buffered Exports: %d
+                Segments Scanned: %d
+                Segments Pruned: %d (%.1f%%)
+                Segments Merged Away: %d
+                """,
+                months,
+                segments,
+                buffered,
+                scanned,
+                pruned,
+                scanned + pruned == 0 ? 0.0 : pruned * 100.0 / (scanned + pruned),
+                segmentsMerged.get()
+        );
+    }
+
+    @Override
+    public void close() {
+        merger.shutdownNow();
+    }
+}
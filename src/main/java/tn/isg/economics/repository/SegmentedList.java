@@ -0,0 +1,102 @@
+package tn.isg.economics.repository;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+// Append-only list in fixed-size chunks, each element with an int key stored alongside it.
+// Elements never move once written, so snapshot() can hand out an immutable view of the first
+// size() elements in O(1): later appends land beyond the view and growing only copies the chunk
+// directory. clear() starts a new epoch with fresh chunks, leaving earlier views untouched.
+// Appends are serialized; snapshots and reads through them take no lock.
+final class SegmentedList<T> {
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private volatile Epoch epoch = new Epoch();
+
+    private static final class Epoch {
+        // size is published after the element and any grown directory, so readers read it first
+        private volatile int size;
+        private volatile Object[][] elements = new Object[16][];
+        private volatile int[][] keys = new int[16][];
+    }
+
+    synchronized void append(T element, int key) {
+        Epoch current = epoch;
+        int index = current.size;
+        int chunk = index >>> CHUNK_SHIFT;
+        if ((index & CHUNK_MASK) == 0) {
+            Object[][] elements = current.elements;
+            int[][] keys = current.keys;
+            if (chunk == elements.length) {
+                elements = Arrays.copyOf(elements, elements.length * 2);
+                keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+            elements[chunk] = new Object[CHUNK_SIZE];
+            keys[chunk] = new int[CHUNK_SIZE];
+            current.elements = elements;
+            current.keys = keys;
+        }
+        current.elements[chunk][index & CHUNK_MASK] = element;
+        current.keys[chunk][index & CHUNK_MASK] = key;
+        current.size = index + 1;
+    }
+
+    synchronized void clear() {
+        epoch = new Epoch();
+    }
+
+    int size() {
+        return epoch.size;
+    }
+
+    View<T> snapshot() {
+        Epoch current = epoch;
+        int size = current.size;
+        return new View<>(current.elements, current.keys, size);
+    }
+
+    // Immutable; stays valid however the list changes afterwards
+    static final class View<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] elements;
+        private final int[][] keys;
+        private final int size;
+
+        private View(Object[][] elements, int[][] keys, int size) {
+            this.elements = elements;
+            this.keys = keys;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            Objects.checkIndex(index, size);
+            return (T) elements[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+
+        int key(int index) {
+            Objects.checkIndex(index, size);
+            return keys[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEach(Consumer<? super T> action) {
+            for (int chunk = 0, remaining = size; remaining > 0; chunk++, remaining -= CHUNK_SIZE) {
+                Object[] values = elements[chunk];
+                for (int i = 0, end = Math.min(remaining, CHUNK_SIZE); i < end; i++) {
+                    action.accept((T) values[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ProductType;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Decides which shard stores a record and which shards a query has to visit
+public interface ShardPartitioner {
+    int shardCount();
+
+    int shardFor(ProductType productType, LocalDate date);
+
+    // Shards that may hold records matching the filters; null means unconstrained
+    int[] shardsFor(ProductType productType, LocalDate startDate, LocalDate endDate);
+
+    static ShardPartitioner byProduct(int shardCount) {
+        return new ByProduct(shardCount);
+    }
+
+    // n boundaries give n + 1 shards: shard i holds dates in [boundary(i - 1), boundary(i))
+    static ShardPartitioner byDateRange(List<LocalDate> boundaries) {
+        return new ByDateRange(boundaries);
+    }
+
+    // Evenly spaced boundaries between start and end
+    static ShardPartitioner byDateRange(LocalDate start, LocalDate end, int shardCount) {
+        if (shardCount < 1 || !end.isAfter(start)) {
+            throw new IllegalArgumentException("Need at least one shard and a non-empty date range");
+        }
+        long days = end.toEpochDay() - start.toEpochDay();
+        List<LocalDate> boundaries = new ArrayList<>(shardCount - 1);
+        for (int i = 1; i < shardCount; i++) {
+            boundaries.add(start.plusDays(days * i / shardCount));
+        }
+        return new ByDateRange(boundaries);
+    }
+
+    record ByProduct(int shardCount) implements ShardPartitioner {
+        public ByProduct {
+            if (shardCount < 1) {
+                throw new IllegalArgumentException("Shard count must be at least 1");
+            }
+        }
+
+        @Override
+        public int shardFor(ProductType productType, LocalDate date) {
+            return productType.ordinal() % shardCount;
+        }
+
+        @Override
+        public int[] shardsFor(ProductType productType, LocalDate startDate, LocalDate endDate) {
+            if (productType != null) {
+                return new int[]{shardFor(productType, null)};
+            }
+            return IntStream.range(0, shardCount).toArray();
+        }
+    }
+
+    record ByDateRange(List<LocalDate> boundaries) implements ShardPartitioner {
+        public ByDateRange {
+            List<LocalDate> sorted = new ArrayList<>(boundaries);
+            Collections.sort(sorted);
+            if (sorted.stream().distinct().count() != sorted.size()) {
+                throw new IllegalArgumentException("Date boundaries must be distinct");
+            }
+            boundaries = List.copyOf(sorted);
+        }
+
+        @Override
+        public int shardCount() {
+            return boundaries.size() + 1;
+        }
+
+        @Override
+        public int shardFor(ProductType productType, LocalDate date) {
+            int index = Collections.binarySearch(boundaries, date);
+            // An exact boundary match starts the next shard
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        @Override
+        public int[] shardsFor(ProductType productType, LocalDate startDate, LocalDate endDate) {
+            int first = startDate != null ? shardFor(null, startDate) : 0;
+            int last = endDate != null ? shardFor(null, endDate) : shardCount() - 1;
+            return first > last ? new int[0] : IntStream.rangeClosed(first, last).toArray();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary request/response framing shared by ShardServer and RemoteShard.
+// Request: opcode byte + arguments. Response: status byte (OK or ERROR + message) + payload.
+final class ShardProtocol {
+    static final byte SAVE_EXPORTS = 1;
+    static final byte SAVE_PREDICTIONS = 2;
+    static final byte ALL_EXPORTS = 3;
+    static final byte DATE_RANGE = 4;
+    static final byte BY_PRODUCT = 5;
+    static final byte PRICE_RANGE = 6;
+    static final byte AGGREGATE = 7;
+    static final byte ALL_PREDICTIONS = 8;
+    static final byte COUNT = 9;
+    static final byte CLEAR = 10;
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    private ShardProtocol() {
+    }
+
+    // ExportData allows a null country, which writeUTF cannot carry
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeExports(DataOutputStream out, List<ExportData> exports) throws IOException {
+        out.writeInt(exports.size());
+        for (ExportData export : exports) {
+            out.writeLong(export.date().toEpochDay());
+            out.writeByte(export.productType().ordinal());
+            out.writeDouble(export.pricePerTon());
+            out.writeDouble(export.volume());
+            writeNullableString(out, export.destinationCountry());
+            out.writeByte(export.indicator().ordinal());
+        }
+    }
+
+    static List<ExportData> readExports(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        ProductType[] products = ProductType.values();
+        MarketIndicator[] indicators = MarketIndicator.values();
+        List<ExportData> exports = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            exports.add(new ExportData(
+                    LocalDate.ofEpochDay(in.readLong()),
+                    products[in.readByte()],
+                    in.readDouble(),
+                    in.readDouble(),
+                    readNullableString(in),
+                    indicators[in.readByte()]));
+        }
+        return exports;
+    }
+
+    static void writePredictions(DataOutputStream out, List<PricePrediction> predictions) throws IOException {
+        out.writeInt(predictions.size());
+        for (PricePrediction prediction : predictions) {
+            out.writeLong(prediction.predictionDate().toEpochDay());
+            out.writeByte(prediction.productType().ordinal());
+            out.writeDouble(prediction.predictedPrice());
+            out.writeDouble(prediction.confidence());
+            out.writeUTF(prediction.modelName());
+            out.writeByte(prediction.status().ordinal());
+        }
+    }
+
+    static List<PricePrediction> readPredictions(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        ProductType[] products = ProductType.values();
+        PredictionStatus[] statuses = PredictionStatus.values();
+        List<PricePrediction> predictions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            predictions.add(new PricePrediction(
+                    LocalDate.ofEpochDay(in.readLong()),
+                    products[in.readByte()],
+                    in.readDouble(),
+                    in.readDouble(),
+                    in.readUTF(),
+                    statuses[in.readByte()]));
+        }
+        return predictions;
+    }
+
+    static void writeAggregates(DataOutputStream out, Map<ProductType, ExportAggregate> aggregates)
+            throws IOException {
+        out.writeInt(aggregates.size());
+        for (Map.Entry<ProductType, ExportAggregate> entry : aggregates.entrySet()) {
+            ExportAggregate aggregate = entry.getValue();
+            out.writeByte(entry.getKey().ordinal());
+            out.writeLong(aggregate.count());
+            out.writeDouble(aggregate.sumPrice());
+            out.writeDouble(aggregate.minPrice());
+            out.writeDouble(aggregate.maxPrice());
+            out.writeDouble(aggregate.totalVolume());
+        }
+    }
+
+    static Map<ProductType, ExportAggregate> readAggregates(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        ProductType[] products = ProductType.values();
+        Map<ProductType, ExportAggregate> aggregates = new EnumMap<>(ProductType.class);
+        for (int i = 0; i < size; i++) {
+            ProductType product = products[in.readByte()];
+            aggregates.put(product, new ExportAggregate(in.readLong(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble()));
+        }
+        return aggregates;
+    }
+
+    static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeLong(date.toEpochDay());
+    }
+
+    static LocalDate readDate(DataInputStream in) throws IOException {
+        return LocalDate.ofEpochDay(in.readLong());
+    }
+}
@@ -0,0 +1,201 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.AsyncLogger;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves one shard over a loopback socket, one virtual thread per connection.
+// Run standalone with: java tn.isg.economics.repository.ShardServer <port>
+public class ShardServer implements AutoCloseable {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(ShardServer.class);
+    private final RepositoryShard shard;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+
+    public ShardServer(int port, RepositoryShard shard) throws IOException {
+        this.shard = shard;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-connection-", 0).factory());
+    }
+
+    public ShardServer start() {
+        Thread.ofVirtual().name("shard-acceptor").start(this::acceptLoop);
+        logger.info(() -> "Shard server listening on port " + getPort());
+        return this;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.warning(() -> "Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            while (true) {
+                byte opcode;
+                try {
+                    opcode = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                handle(opcode, in, out);
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // Client went away
+        } catch (IOException e) {
+            logger.warning(() -> "Shard connection failed: " + e.getMessage());
+        }
+    }
+
+    private void handle(byte opcode, DataInputStream in, DataOutputStream out) throws IOException {
+        // Arguments are read before executing so a failing request leaves the stream in sync
+        try {
+            switch (opcode) {
+                case ShardProtocol.SAVE_EXPORTS -> {
+                    var exports = ShardProtocol.readExports(in);
+                    int saved = shard.saveExports(exports);
+                    out.writeByte(ShardProtocol.OK);
+                    out.writeInt(saved);
+                }
+                case ShardProtocol.SAVE_PREDICTIONS -> {
+                    var predictions = ShardProtocol.readPredictions(in);
+                    int saved = shard.savePredictions(predictions);
+                    out.writeByte(ShardProtocol.OK);
+                    out.writeInt(saved);
+                }
+                case ShardProtocol.ALL_EXPORTS -> {
+                    var exports = shard.getAllExportData();
+                    out.writeByte(ShardProtocol.OK);
+                    ShardProtocol.writeExports(out, exports);
+                }
+                case ShardProtocol.DATE_RANGE -> {
+                    var start = ShardProtocol.readDate(in);
+                    var end = ShardProtocol.readDate(in);
+                    var exports = shard.getExportDataByDateRange(start, end);
+                    out.writeByte(ShardProtocol.OK);
+                    ShardProtocol.writeExports(out, exports);
+                }
+                case ShardProtocol.BY_PRODUCT -> {
+                    var product = ProductType.values()[in.readByte()];
+                    var exports = shard.findByProduct(product);
+                    out.writeByte(ShardProtocol.OK);
+                    ShardProtocol.writeExports(out, exports);
+                }
+                case ShardProtocol.PRICE_RANGE -> {
+                    double min = in.readDouble();
+                    double max = in.readDouble();
+                    var exports = shard.findByPriceRange(min, max);
+                    out.writeByte(ShardProtocol.OK);
+                    ShardProtocol.writeExports(out, exports);
+                }
+                case ShardProtocol.AGGREGATE -> {
+                    var start = ShardProtocol.readDate(in);
+                    var end = ShardProtocol.readDate(in);
+                    var aggregates = shard.aggregateByProduct(start, end);
+                    out.writeByte(ShardProtocol.OK);
+                    ShardProtocol.writeAggregates(out, aggregates);
+                }
+                case ShardProtocol.ALL_PREDICTIONS -> {
+                    var predictions = shard.getAllPredictions();
+                    out.writeByte(ShardProtocol.OK);
+                    ShardProtocol.writePredictions(out, predictions);
+                }
+                case ShardProtocol.COUNT -> {
+                    long count = shard.getExportCount();
+                    out.writeByte(ShardProtocol.OK);
+                    out.writeLong(count);
+                }
+                case ShardProtocol.CLEAR -> {
+                    shard.clearAll();
+                    out.writeByte(ShardProtocol.OK);
+                }
+                default -> throw new IOException("Unknown shard opcode " + opcode);
+            }
+        } catch (RuntimeException e) {
+            out.writeByte(ShardProtocol.ERROR);
+            out.writeUTF(String.valueOf(e.getMessage()));
+        }
+    }
+
+    // Starts a shard server in a separate JVM on the same classpath and waits until it accepts connections
+    public static Process spawn(int port, Duration startupTimeout) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ShardServer.class.getName(), Integer.toString(port))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        long deadline = System.nanoTime() + startupTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("Shard JVM exited with code " + process.exitValue());
+            }
+            try (Socket probe = new Socket()) {
+                probe.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 200);
+                return process;
+            } catch (IOException e) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    process.destroy();
+                    throw new IOException("Interrupted while waiting for shard JVM", interrupted);
+                }
+            }
+        }
+        process.destroy();
+        throw new IOException("Shard JVM did not start listening on port " + port + " within " + startupTimeout);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+        shard.close();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7400;
+        ShardServer server = new ShardServer(port, new LocalShard()).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.err.println("Error closing shard server: " + e.getMessage());
+            }
+        }));
+        System.out.println("Shard server listening on 127.0.0.1:" + server.getPort());
+        // Connection threads are virtual (daemon) threads, so keep the JVM alive until it is stopped
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,234 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+// DataRepository spread over N shards. Writes are routed by the partitioner; queries are sent only to
+// the shards that can hold matching records, run in parallel, and their partial results merged.
+// Results are grouped by shard, so they do not keep global insertion order.
+public class ShardedDataRepository implements DataRepository, AutoCloseable {
+    private final List<RepositoryShard> shards;
+    private final ShardPartitioner partitioner;
+    private final ExecutorService executor;
+    private final AtomicLong shardsQueried = new AtomicLong();
+    private final AtomicLong shardsPruned = new AtomicLong();
+
+    public ShardedDataRepository(List<RepositoryShard> shards, ShardPartitioner partitioner) {
+        if (shards.size() != partitioner.shardCount()) {
+            throw new IllegalArgumentException("Partitioner expects " + partitioner.shardCount()
+                    + " shards but " + shards.size() + " were given");
+        }
+        this.shards = List.copyOf(shards);
+        this.partitioner = partitioner;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-query-", 0).factory());
+    }
+
+    public static ShardedDataRepository inProcess(ShardPartitioner partitioner) {
+        List<RepositoryShard> shards = new ArrayList<>(partitioner.shardCount());
+        for (int i = 0; i < partitioner.shardCount(); i++) {
+            shards.add(new LocalShard());
+        }
+        return new ShardedDataRepository(shards, partitioner);
+    }
+
+    @Override
+    public boolean saveExportData(ExportData exportData) {
+        if (exportData == null) {
+            return false;
+        }
+        return shardFor(exportData).saveExports(List.of(exportData)) == 1;
+    }
+
+    public int saveAllExportData(List<ExportData> exportDataList) {
+        if (exportDataList == null || exportDataList.isEmpty()) {
+            return 0;
+        }
+        List<List<ExportData>> routed = route(exportDataList,
+                export -> partitioner.shardFor(export.productType(), export.date()));
+        return scatter(allShards(), shard -> routed.get(shard).isEmpty()
+                ? 0 : shards.get(shard).saveExports(routed.get(shard)), Integer::sum, 0);
+    }
+
+    @Override
+    public List<ExportData> getAllExportData() {
+        return scatter(allShards(), shard -> shards.get(shard).getAllExportData(), ShardedDataRepository::concat,
+                new ArrayList<>());
+    }
+
+    @Override
+    public List<ExportData> getExportDataByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            return new ArrayList<>();
+        }
+        return scatter(partitioner.shardsFor(null, startDate, endDate),
+                shard -> shards.get(shard).getExportDataByDateRange(startDate, endDate),
+                ShardedDataRepository::concat, new ArrayList<>());
+    }
+
+    public List<ExportData> findByProduct(ProductType productType) {
+        if (productType == null) {
+            return new ArrayList<>();
+        }
+        return scatter(partitioner.shardsFor(productType, null, null),
+                shard -> shards.get(shard).findByProduct(productType),
+                ShardedDataRepository::concat, new ArrayList<>());
+    }
+
+    public List<ExportData> findByPriceRange(double minPrice, double maxPrice) {
+        return scatter(allShards(), shard -> shards.get(shard).findByPriceRange(minPrice, maxPrice),
+                ShardedDataRepository::concat, new ArrayList<>());
+    }
+
+    // Shards summarize locally; only one small aggregate per product and shard is merged here.
+    // A null bound leaves that side of the date range open.
+    public Map<ProductType, ExportAggregate> aggregateByProduct(LocalDate startDate, LocalDate endDate) {
+        LocalDate start = startDate != null ? startDate : LocalDate.MIN;
+        LocalDate end = endDate != null ? endDate : LocalDate.MAX;
+        return scatter(partitioner.shardsFor(null, start, end),
+                shard -> shards.get(shard).aggregateByProduct(start, end),
+                (left, right) -> {
+                    Map<ProductType, ExportAggregate> merged = new EnumMap<>(ProductType.class);
+                    merged.putAll(left);
+                    right.forEach((product, aggregate) -> merged.merge(product, aggregate, ExportAggregate::merge));
+                    return merged;
+                }, new EnumMap<>(ProductType.class));
+    }
+
+    public Map<ProductType, Double> getAveragePriceByProduct(LocalDate startDate, LocalDate endDate) {
+        Map<ProductType, Double> averages = new EnumMap<>(ProductType.class);
+        aggregateByProduct(startDate, endDate).forEach((product, aggregate) ->
+                averages.put(product, aggregate.averagePrice()));
+        return averages;
+    }
+
+    @Override
+    public boolean savePrediction(PricePrediction prediction) {
+        if (prediction == null) {
+            return false;
+        }
+        int shard = partitioner.shardFor(prediction.productType(), prediction.predictionDate());
+        return shards.get(shard).savePredictions(List.of(prediction)) == 1;
+    }
+
+    public int saveAllPredictions(List<PricePrediction> predictionList) {
+        if (predictionList == null || predictionList.isEmpty()) {
+            return 0;
+        }
+        List<List<PricePrediction>> routed = route(predictionList,
+                prediction -> partitioner.shardFor(prediction.productType(), prediction.predictionDate()));
+        return scatter(allShards(), shard -> routed.get(shard).isEmpty()
+                ? 0 : shards.get(shard).savePredictions(routed.get(shard)), Integer::sum, 0);
+    }
+
+    @Override
+    public List<PricePrediction> getAllPredictions() {
+        return scatter(allShards(), shard -> shards.get(shard).getAllPredictions(), ShardedDataRepository::concat,
+                new ArrayList<>());
+    }
+
+    @Override
+    public void clearAll() {
+        scatter(allShards(), shard -> {
+            shards.get(shard).clearAll();
+            return 0;
+        }, Integer::sum, 0);
+    }
+
+    public long getExportCount() {
+        return scatter(allShards(), shard -> shards.get(shard).getExportCount(), Long::sum, 0L);
+    }
+
+    private RepositoryShard shardFor(ExportData export) {
+        return shards.get(partitioner.shardFor(export.productType(), export.date()));
+    }
+
+    private <T> List<List<T>> route(List<T> records, Function<T, Integer> shardOf) {
+        List<List<T>> routed = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            routed.add(new ArrayList<>());
+        }
+        for (T record : records) {
+            routed.get(shardOf.apply(record)).add(record);
+        }
+        return routed;
+    }
+
+    private int[] allShards() {
+        return IntStream.range(0, shards.size()).toArray();
+    }
+
+    private <R> R scatter(int[] targets, Function<Integer, R> query, BinaryOperator<R> merge, R identity) {
+        shardsQueried.addAndGet(targets.length);
+        shardsPruned.addAndGet(shards.size() - targets.length);
+        if (targets.length == 1) {
+            return merge.apply(identity, query.apply(targets[0]));
+        }
+        List<CompletableFuture<R>> partials = new ArrayList<>(targets.length);
+        for (int shard : targets) {
+            partials.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        R result = identity;
+        try {
+            for (CompletableFuture<R> partial : partials) {
+                result = merge.apply(result, partial.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    private static <T> List<T> concat(List<T> left, List<T> right) {
+        if (left.isEmpty()) {
+            return right instanceof ArrayList<T> ? right : new ArrayList<>(right);
+        }
+        List<T> merged = left instanceof ArrayList<T> ? left : new ArrayList<>(left);
+        merged.addAll(right);
+        return merged;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public String getShardingStatistics() {
+        long queried = shardsQueried.get();
+        long pruned = shardsPruned.get();
+        return String.format(
+                """
+                === SHARDING ===
+                Shards: %d (%s)
+                Shard Visits: %d
+                Shards Pruned: %d (%.1f%%)
+                """,
+                shards.size(),
+                partitioner.getClass().getSimpleName(),
+                queried,
+                pruned,
+                queried + pruned == 0 ? 0.0 : pruned * 100.0 / (queried + pruned)
+        );
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        shards.forEach(RepositoryShard::close);
+    }
+}
@@ -0,0 +1,152 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Full image of the repository: [magic][version][export count][prediction count][records...][CRC32C].
+// Written and read through memory-mapped segments so large snapshots never go through heap buffers.
+final class SnapshotFile {
+    private static final long MAGIC = 0x54_4E_45_58_53_4E_41_50L; // "TNEXSNAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Long.BYTES + 3 * Integer.BYTES;
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+    // Largest encoded record: fixed fields plus a maximal string
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+
+    record Contents(List<ExportData> exports, List<PricePrediction> predictions) {
+    }
+
+    private SnapshotFile() {
+    }
+
+    static Path fileFor(Path directory, long generation) {
+        return directory.resolve(String.format("snapshot-%012d.snap", generation));
+    }
+
+    // Writes to a temporary file and moves it into place, so a crash never leaves a partial snapshot
+    static void write(Path file, List<ExportData> exports, List<PricePrediction> predictions) throws IOException {
+        long size = HEADER_SIZE + Integer.BYTES;
+        for (ExportData export : exports) {
+            size += RecordCodec.exportSize(export);
+        }
+        for (PricePrediction prediction : predictions) {
+            size += RecordCodec.predictionSize(prediction);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Segments out = new Segments(channel, FileChannel.MapMode.READ_WRITE, size);
+            ByteBuffer buffer = out.ensure(HEADER_SIZE);
+            buffer.putLong(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(exports.size());
+            buffer.putInt(predictions.size());
+            for (ExportData export : exports) {
+                RecordCodec.putExport(out.ensure(RecordCodec.exportSize(export)), export);
+            }
+            for (PricePrediction prediction : predictions) {
+                RecordCodec.putPrediction(out.ensure(RecordCodec.predictionSize(prediction)), prediction);
+            }
+            int checksum = out.checksum();
+            out.ensure(Integer.BYTES).putInt(checksum);
+            out.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + Integer.BYTES) {
+                throw new IOException("Snapshot " + file.getFileName() + " is truncated");
+            }
+            Segments in = new Segments(channel, FileChannel.MapMode.READ_ONLY, size);
+            ByteBuffer header = in.ensure(HEADER_SIZE);
+            if (header.getLong() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Snapshot " + file.getFileName() + " has an unknown format");
+            }
+            int exportCount = header.getInt();
+            int predictionCount = header.getInt();
+            try {
+                List<ExportData> exports = new ArrayList<>(exportCount);
+                for (int i = 0; i < exportCount; i++) {
+                    exports.add(RecordCodec.getExport(in.ensure(MAX_RECORD_SIZE)));
+                }
+                List<PricePrediction> predictions = new ArrayList<>(predictionCount);
+                for (int i = 0; i < predictionCount; i++) {
+                    predictions.add(RecordCodec.getPrediction(in.ensure(MAX_RECORD_SIZE)));
+                }
+                int expected = in.checksum();
+                if (in.ensure(Integer.BYTES).getInt() != expected) {
+                    throw new IOException("Snapshot " + file.getFileName() + " failed its checksum");
+                }
+                return new Contents(exports, predictions);
+            } catch (RuntimeException e) {
+                throw new IOException("Snapshot " + file.getFileName() + " is corrupt", e);
+            }
+        }
+    }
+
+    // Walks a file through consecutive mapped windows, checksumming each window as it is left behind.
+    // ensure(n) remaps at the current offset whenever fewer than n bytes are left in the window and the
+    // file continues past it.
+    private static final class Segments {
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private final long size;
+        private final CRC32C crc = new CRC32C();
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        Segments(FileChannel channel, FileChannel.MapMode mode, long size) {
+            this.channel = channel;
+            this.mode = mode;
+            this.size = size;
+        }
+
+        ByteBuffer ensure(int bytes) throws IOException {
+            if (window == null || (window.remaining() < bytes && windowStart + window.limit() < size)) {
+                long position = 0;
+                if (window != null) {
+                    release();
+                    position = windowStart + window.position();
+                }
+                window = channel.map(mode, position, Math.min(SEGMENT_SIZE, size - position));
+                windowStart = position;
+            }
+            return window;
+        }
+
+        // Checksum of everything consumed so far
+        int checksum() {
+            crc.update(window.slice(0, window.position()));
+            windowStart += window.position();
+            window = window.slice(window.position(), window.remaining());
+            return (int) crc.getValue();
+        }
+
+        private void release() {
+            crc.update(window.slice(0, window.position()));
+            if (mode == FileChannel.MapMode.READ_WRITE) {
+                window.force();
+            }
+        }
+
+        void force() {
+            if (window != null) {
+                window.force();
+            }
+        }
+    }
+}
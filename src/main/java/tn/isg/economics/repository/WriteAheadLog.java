@@ -0,0 +1,307 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.util.AsyncLogger;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// Append-only log of checksummed frames: [payload length][CRC32C of payload][payload].
+// Appends only copy into a pending buffer; a single writer thread flushes everything pending with one
+// write and one fsync (group commit), so concurrent writers share the cost of each sync.
+// The log is fail-stop: after a failed write nothing later is written (it would leave a gap the replay
+// cannot see), the writer exits, and every append and wait from then on throws.
+final class WriteAheadLog implements AutoCloseable {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(WriteAheadLog.class);
+    static final int FRAME_HEADER = 2 * Integer.BYTES;
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    private final Path directory;
+    private final boolean syncOnCommit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final CRC32C crc = new CRC32C();
+    private final Thread writer;
+    private FileChannel channel;
+    private long generation;
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER);
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private boolean closed;
+    private IOException failure;
+    private long groupCommits;
+    private long framesWritten;
+
+    WriteAheadLog(Path directory, long generation, boolean syncOnCommit) throws IOException {
+        this.directory = directory;
+        this.syncOnCommit = syncOnCommit;
+        this.generation = generation;
+        this.channel = open(generation);
+        this.writer = Thread.ofPlatform().name("wal-writer").daemon(true).start(this::writeLoop);
+    }
+
+    static Path fileFor(Path directory, long generation) {
+        return directory.resolve(String.format("wal-%012d.log", generation));
+    }
+
+    private FileChannel open(long generation) throws IOException {
+        return FileChannel.open(fileFor(directory, generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // Returns a sequence number to pass to awaitDurable
+    long append(ByteBuffer payload) {
+        lock.lock();
+        try {
+            ensureWritable();
+            int length = payload.remaining();
+            ensureCapacity(FRAME_HEADER + length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            pending.putInt(length);
+            pending.putInt((int) crc.getValue());
+            pending.put(payload);
+            framesWritten++;
+            pendingAvailable.signal();
+            return ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Throws if the log has failed or been closed; lets callers refuse a change before applying it
+    void ensureWritable() {
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (pending.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + needed));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+    }
+
+    void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence && failure == null) {
+                durable.await();
+            }
+            if (durableSequence < sequence) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for log commit"));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long batchSequence;
+            FileChannel target;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed) {
+                    pendingAvailable.awaitUninterruptibly();
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                batchSequence = appendedSequence;
+                target = channel;
+                flushing = true;
+            } finally {
+                lock.unlock();
+            }
+            IOException error = null;
+            try {
+                batch.flip();
+                writeFully(target, batch);
+            } catch (IOException e) {
+                error = e;
+            }
+            lock.lock();
+            try {
+                batch.clear();
+                flushing = false;
+                if (error != null) {
+                    failure = error;
+                    logger.severe(() -> "Write-ahead log write failed, no further writes accepted: "
+                            + failure.getMessage());
+                } else {
+                    durableSequence = batchSequence;
+                    groupCommits++;
+                }
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) {
+                return;
+            }
+        }
+    }
+
+    private void writeFully(FileChannel target, ByteBuffer batch) throws IOException {
+        while (batch.hasRemaining()) {
+            target.write(batch);
+        }
+        if (syncOnCommit) {
+            target.force(false);
+        }
+    }
+
+    // Makes everything appended so far durable in the current file, then continues in a new one.
+    // Callers must stop appends for the duration (the repository holds its write lock).
+    void rotate(long newGeneration) throws IOException {
+        lock.lock();
+        try {
+            while (flushing) {
+                durable.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new IOException("Write-ahead log failed", failure);
+            }
+            pending.flip();
+            writeFully(channel, pending);
+            pending.clear();
+            channel.force(false);
+            channel.close();
+            durableSequence = appendedSequence;
+            durable.signalAll();
+            channel = open(newGeneration);
+            generation = newGeneration;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getGeneration() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getGroupCommits() {
+        lock.lock();
+        try {
+            return groupCommits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getFramesWritten() {
+        lock.lock();
+        try {
+            return framesWritten;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Feeds every intact frame to the consumer and stops at the first torn or corrupt one, which can
+    // only be the unfinished tail of a crashed write. Returns the number of frames replayed.
+    static long replay(Path file, Consumer<ByteBuffer> consumer) throws IOException {
+        long frames = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+            ByteBuffer payload = ByteBuffer.allocate(1024);
+            CRC32C crc = new CRC32C();
+            long position = 0;
+            while (position + FRAME_HEADER <= size) {
+                header.clear();
+                channel.read(header, position);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length < 0 || position + FRAME_HEADER + length > size) {
+                    break;
+                }
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(length);
+                }
+                payload.clear().limit(length);
+                while (payload.hasRemaining()) {
+                    channel.read(payload, position + FRAME_HEADER + payload.position());
+                }
+                payload.flip();
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                consumer.accept(payload);
+                frames++;
+                position += FRAME_HEADER + length;
+            }
+            if (position < size) {
+                long tornAt = position;
+                logger.warning(() -> "Ignoring " + (size - tornAt) + " byte(s) of torn log tail in " + file.getFileName());
+            }
+        }
+        return frames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            pendingAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (channel.isOpen()) {
+                try {
+                    if (failure == null) {
+                        channel.force(false);
+                    }
+                } finally {
+                    channel.close();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
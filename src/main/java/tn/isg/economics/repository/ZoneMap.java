@@ -0,0 +1,80 @@
+package tn.isg.economics.repository;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.ProductType;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Min/max bounds and value sets of one segment; a query skips the segment when these rule it out
+public record ZoneMap(LocalDate minDate, LocalDate maxDate,
+                      double minPrice, double maxPrice,
+                      double minVolume, double maxVolume,
+                      Set<ProductType> products, Set<MarketIndicator> indicators) {
+
+    public ZoneMap {
+        products = Collections.unmodifiableSet(copy(products, ProductType.class));
+        indicators = Collections.unmodifiableSet(copy(indicators, MarketIndicator.class));
+    }
+
+    private static <E extends Enum<E>> EnumSet<E> copy(Set<E> values, Class<E> type) {
+        EnumSet<E> copy = EnumSet.noneOf(type);
+        copy.addAll(values);
+        return copy;
+    }
+
+    // records must not be empty
+    public static ZoneMap of(Iterable<ExportData> records) {
+        LocalDate minDate = LocalDate.MAX;
+        LocalDate maxDate = LocalDate.MIN;
+        double minPrice = Double.POSITIVE_INFINITY;
+        double maxPrice = Double.NEGATIVE_INFINITY;
+        double minVolume = Double.POSITIVE_INFINITY;
+        double maxVolume = Double.NEGATIVE_INFINITY;
+        EnumSet<ProductType> products = EnumSet.noneOf(ProductType.class);
+        EnumSet<MarketIndicator> indicators = EnumSet.noneOf(MarketIndicator.class);
+        for (ExportData export : records) {
+            if (export.date().isBefore(minDate)) {
+                minDate = export.date();
+            }
+            if (export.date().isAfter(maxDate)) {
+                maxDate = export.date();
+            }
+            // NaN never matches a range query, and Math.min/max would turn the whole bound into NaN
+            // and rule out the segment's other records
+            if (!Double.isNaN(export.pricePerTon())) {
+                minPrice = Math.min(minPrice, export.pricePerTon());
+                maxPrice = Math.max(maxPrice, export.pricePerTon());
+            }
+            if (!Double.isNaN(export.volume())) {
+                minVolume = Math.min(minVolume, export.volume());
+                maxVolume = Math.max(maxVolume, export.volume());
+            }
+            products.add(export.productType());
+            indicators.add(export.indicator());
+        }
+        return new ZoneMap(minDate, maxDate, minPrice, maxPrice, minVolume, maxVolume, products, indicators);
+    }
+
+    public boolean mayContainDates(LocalDate startDate, LocalDate endDate) {
+        return !maxDate.isBefore(startDate) && !minDate.isAfter(endDate);
+    }
+
+    public boolean mayContainPrices(double low, double high) {
+        return maxPrice >= low && minPrice <= high;
+    }
+
+    public boolean mayContainVolumes(double low, double high) {
+        return maxVolume >= low && minVolume <= high;
+    }
+
+    public boolean mayContain(ProductType productType) {
+        return products.contains(productType);
+    }
+
+    public boolean mayContain(MarketIndicator indicator) {
+        return indicators.contains(indicator);
+    }
+}
@@ -0,0 +1,134 @@
+package tn.isg.economics.service;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.AsyncLogger;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+public class AdmissionControlledPredictionService implements PredictionService {
+    private static final AsyncLogger log = AsyncLogger.getLogger(AdmissionControlledPredictionService.class);
+    public static final String SHED_MODEL_NAME = "AdmissionControl";
+
+    public enum SheddingPolicy {
+        REJECT,   // answer with SHED predictions straight away
+        DEGRADE   // answer from the cheaper fallback model, or the last good prediction per product
+    }
+
+    private final PredictionService delegate;
+    private final PredictionService fallback;
+    private final SheddingPolicy policy;
+    private final AdmissionController controller;
+    private final Map<ProductType, PricePrediction> lastGoodPredictions = new ConcurrentHashMap<>();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong degraded = new AtomicLong();
+
+    public AdmissionControlledPredictionService(PredictionService delegate, AdmissionController controller,
+                                                SheddingPolicy policy, PredictionService fallback) {
+        if (delegate == null || controller == null || policy == null) {
+            throw new IllegalArgumentException("Delegate, controller and policy are required");
+        }
+        this.delegate = delegate;
+        this.controller = controller;
+        this.policy = policy;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public PricePrediction predictPrice(ExportData input) {
+        return predictBatch(List.of(input)).get(0);
+    }
+
+    @Override
+    public List<PricePrediction> predictBatch(List<ExportData> inputs) {
+        if (inputs == null || inputs.isEmpty()) {
+            return List.of();
+        }
+        if (!controller.tryAcquire()) {
+            return shed(inputs);
+        }
+        admitted.incrementAndGet();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            List<PricePrediction> predictions = delegate.predictBatch(inputs);
+            for (PricePrediction prediction : predictions) {
+                if (prediction.status() == PredictionStatus.COMPLETED) {
+                    lastGoodPredictions.put(prediction.productType(), prediction);
+                }
+            }
+            success = true;
+            return predictions;
+        } finally {
+            // The latency target is per prediction so batches of any size are judged alike
+            controller.release((System.nanoTime() - start) / inputs.size(), success);
+        }
+    }
+
+    private List<PricePrediction> shed(List<ExportData> inputs) {
+        log.sampled("admission.shed", Level.WARNING, () -> "Overloaded (limit " + controller.getLimit()
+                + ", queued " + controller.getQueued() + "): " + policy + " for " + inputs.size() + " input(s)");
+        if (policy == SheddingPolicy.DEGRADE && fallback != null) {
+            degraded.addAndGet(inputs.size());
+            return fallback.predictBatch(inputs);
+        }
+        return inputs.stream()
+                .map(input -> {
+                    PricePrediction cached = policy == SheddingPolicy.DEGRADE
+                            ? lastGoodPredictions.get(input.productType())
+                            : null;
+                    if (cached != null) {
+                        degraded.incrementAndGet();
+                        return cached;
+                    }
+                    shed.incrementAndGet();
+                    return new PricePrediction(
+                            LocalDate.now(),
+                            input.productType(),
+                            0.0,
+                            0.0,
+                            SHED_MODEL_NAME,
+                            PredictionStatus.SHED
+                    );
+                })
+                .toList();
+    }
+
+    @Override
+    public double getModelAccuracy() {
+        return delegate.getModelAccuracy();
+    }
+
+    public AdmissionController getController() {
+        return controller;
+    }
+
+    public String getAdmissionStatistics() {
+        return String.format(
+                """
+                === ADMISSION CONTROL ===
+                Policy: %s
+                Concurrency Limit: %d
+                In Flight: %d
+                Queued: %d
+                Admitted Requests: %d
+                Shed Predictions: %d
+                Degraded Predictions: %d
+                """,
+                policy,
+                controller.getLimit(),
+                controller.getInFlight(),
+                controller.getQueued(),
+                admitted.get(),
+                shed.get(),
+                degraded.get()
+        );
+    }
+}
@@ -0,0 +1,116 @@
+package tn.isg.economics.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// AIMD concurrency limiter: the limit grows by 1/limit per fast call and shrinks by BACKOFF
+// when a call is slower than the latency target or fails. Waiters beyond maxQueue are refused.
+public class AdmissionController {
+    private static final double BACKOFF = 0.9;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition capacityAvailable = lock.newCondition();
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long queueTimeoutNanos;
+    private final long latencyTargetNanos;
+    private double limit;
+    private int inFlight;
+    private int waiting;
+
+    public AdmissionController(int initialLimit, int maxLimit, int maxQueue,
+                               Duration queueTimeout, Duration latencyTarget) {
+        if (initialLimit < 1 || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= initialLimit <= maxLimit");
+        }
+        if (maxQueue < 0) {
+            throw new IllegalArgumentException("Queue size cannot be negative");
+        }
+        this.minLimit = 1;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.limit = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= maxQueue) {
+                return false;
+            }
+            waiting++;
+            try {
+                long remaining = queueTimeoutNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = capacityAvailable.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos, boolean success) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (success && latencyNanos <= latencyTargetNanos) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            } else {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            }
+            capacityAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLatencyTargetNanos() {
+        return latencyTargetNanos;
+    }
+}
@@ -0,0 +1,302 @@
+package tn.isg.economics.service;
+
+import tn.isg.economics.exception.PredictionException;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.util.AsyncLogger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// load -> validate -> predict -> filter -> persist, each stage on its own thread (predict on a small pool),
+// connected by bounded queues of micro-batches. A full queue blocks the producer, so a slow stage throttles
+// everything upstream and at most (queueCapacity + workers) batches are in flight between two stages.
+// Batches overtaking a slow predict worker wait in persist's reorder buffer; a window of sequence permits,
+// taken in validate and returned in order by persist, bounds that buffer as well.
+public class AnalysisPipeline {
+    private static final AsyncLogger log = AsyncLogger.getLogger(AnalysisPipeline.class);
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_QUEUE_CAPACITY = 8;
+    public static final int DEFAULT_PREDICT_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final String[] STAGE_NAMES = {"load", "validate", "predict", "filter", "persist"};
+    private static final int LOAD = 0, VALIDATE = 1, PREDICT = 2, FILTER = 3, PERSIST = 4;
+
+    // Sequence numbers let the persist stage restore input order after the parallel predict stage
+    private record Batch<T>(long sequence, List<T> items) {
+    }
+
+    private static final Batch<?> END = new Batch<>(-1, List.of());
+
+    private static final class StageCounter {
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong recordsIn = new AtomicLong();
+        private final AtomicLong recordsOut = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong blockedNanos = new AtomicLong();
+    }
+
+    private final PredictionService predictionService;
+    private final Predicate<ExportData> validator;
+    private final double minConfidence;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int predictWorkers;
+    private final StageCounter[] counters = new StageCounter[STAGE_NAMES.length];
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    public AnalysisPipeline(PredictionService predictionService, Predicate<ExportData> validator, double minConfidence) {
+        this(predictionService, validator, minConfidence, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY,
+                DEFAULT_PREDICT_WORKERS);
+    }
+
+    public AnalysisPipeline(PredictionService predictionService, Predicate<ExportData> validator, double minConfidence,
+                            int batchSize, int queueCapacity, int predictWorkers) {
+        if (batchSize < 1 || queueCapacity < 1 || predictWorkers < 1) {
+            throw new IllegalArgumentException("Batch size, queue capacity and worker count must be positive");
+        }
+        this.predictionService = predictionService;
+        this.validator = validator;
+        this.minConfidence = minConfidence;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.predictWorkers = predictWorkers;
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new StageCounter();
+        }
+    }
+
+    // Single use: the counters describe one run and can be read while it is in progress
+    public PipelineStatistics run(Iterable<ExportData> source, Consumer<List<PricePrediction>> sink)
+            throws PredictionException {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Pipeline has already been run");
+        }
+        startNanos = System.nanoTime();
+        BlockingQueue<Batch<ExportData>> loaded = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Batch<ExportData>> validated = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Batch<PricePrediction>> predicted = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Batch<PricePrediction>> filtered = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger activePredictors = new AtomicInteger(predictWorkers);
+        // Room for every batch the queues and stages between validate and persist can hold, so in-order
+        // runs never wait on it; a stuck batch lets at most this many others pile up behind it
+        Semaphore reorderWindow = new Semaphore(3 * queueCapacity + predictWorkers + 2);
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("analysis-pipeline-", 0).factory());
+        try {
+            submit(executor, () -> load(source, loaded));
+            submit(executor, () -> validate(loaded, validated, reorderWindow));
+            for (int i = 0; i < predictWorkers; i++) {
+                submit(executor, () -> predict(validated, predicted, activePredictors));
+            }
+            submit(executor, () -> filter(predicted, filtered));
+            submit(executor, () -> persist(filtered, sink, reorderWindow));
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                log.fine(this::progress);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdownNow();
+            endNanos = System.nanoTime();
+        }
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new PredictionException("Analysis pipeline failed: " + error.getMessage(), error);
+        }
+        PipelineStatistics statistics = getStatistics();
+        log.fine(statistics::toFormattedString);
+        return statistics;
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws InterruptedException;
+    }
+
+    // The first failing stage records its error and interrupts the others, which are blocked on a queue
+    private void submit(ExecutorService executor, Stage stage) {
+        executor.execute(() -> {
+            try {
+                stage.run();
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+            } catch (Throwable t) {
+                if (failure.compareAndSet(null, t)) {
+                    log.severe(() -> "Analysis pipeline stage failed: " + t);
+                }
+                executor.shutdownNow();
+            }
+        });
+    }
+
+    private void load(Iterable<ExportData> source, BlockingQueue<Batch<ExportData>> out) throws InterruptedException {
+        StageCounter counter = counters[LOAD];
+        long busyStart = System.nanoTime();
+        List<ExportData> batch = new ArrayList<>(batchSize);
+        long sequence = 0;
+        for (ExportData export : source) {
+            batch.add(export);
+            if (batch.size() == batchSize) {
+                counter.busyNanos.addAndGet(System.nanoTime() - busyStart);
+                emit(counter, batch.size(), batch.size(), out, new Batch<>(sequence++, batch));
+                batch = new ArrayList<>(batchSize);
+                busyStart = System.nanoTime();
+            }
+        }
+        counter.busyNanos.addAndGet(System.nanoTime() - busyStart);
+        if (!batch.isEmpty()) {
+            emit(counter, batch.size(), batch.size(), out, new Batch<>(sequence, batch));
+        }
+        putEnd(out);
+    }
+
+    private void validate(BlockingQueue<Batch<ExportData>> in, BlockingQueue<Batch<ExportData>> out,
+                          Semaphore reorderWindow) throws InterruptedException {
+        StageCounter counter = counters[VALIDATE];
+        long sequence = 0;
+        for (Batch<ExportData> batch = in.take(); batch != END; batch = in.take()) {
+            long busyStart = System.nanoTime();
+            List<ExportData> valid = new ArrayList<>(batch.items().size());
+            for (ExportData export : batch.items()) {
+                if (validator.test(export)) {
+                    valid.add(export);
+                }
+            }
+            counter.busyNanos.addAndGet(System.nanoTime() - busyStart);
+            if (valid.isEmpty()) {
+                counter.batches.incrementAndGet();
+                counter.recordsIn.addAndGet(batch.items().size());
+                continue;
+            }
+            long blockedStart = System.nanoTime();
+            reorderWindow.acquire();
+            counter.blockedNanos.addAndGet(System.nanoTime() - blockedStart);
+            // Renumbered so that downstream sequences stay contiguous when whole batches are dropped
+            emit(counter, batch.items().size(), valid.size(), out, new Batch<>(sequence++, valid));
+        }
+        putEnd(out);
+    }
+
+    private void predict(BlockingQueue<Batch<ExportData>> in, BlockingQueue<Batch<PricePrediction>> out,
+                         AtomicInteger activePredictors) throws InterruptedException {
+        StageCounter counter = counters[PREDICT];
+        for (Batch<ExportData> batch = in.take(); batch != END; batch = in.take()) {
+            long busyStart = System.nanoTime();
+            List<PricePrediction> predictions = predictionService.predictBatch(batch.items());
+            counter.busyNanos.addAndGet(System.nanoTime() - busyStart);
+            emit(counter, batch.items().size(), predictions.size(), out, new Batch<>(batch.sequence(), predictions));
+        }
+        // Pass the end marker on to the sibling workers; the last one to finish closes the stage
+        putEnd(in);
+        if (activePredictors.decrementAndGet() == 0) {
+            putEnd(out);
+        }
+    }
+
+    private void filter(BlockingQueue<Batch<PricePrediction>> in, BlockingQueue<Batch<PricePrediction>> out)
+            throws InterruptedException {
+        StageCounter counter = counters[FILTER];
+        for (Batch<PricePrediction> batch = in.take(); batch != END; batch = in.take()) {
+            long busyStart = System.nanoTime();
+            List<PricePrediction> kept = new ArrayList<>(batch.items().size());
+            for (PricePrediction prediction : batch.items()) {
+                if (prediction.status() == PredictionStatus.SHED) {
+                    shed.incrementAndGet();
+                }
+                if (prediction.confidence() > minConfidence) {
+                    kept.add(prediction);
+                }
+            }
+            counter.busyNanos.addAndGet(System.nanoTime() - busyStart);
+            // Empty batches are still forwarded to keep the sequence contiguous for the persist stage
+            emit(counter, batch.items().size(), kept.size(), out, new Batch<>(batch.sequence(), kept));
+        }
+        putEnd(out);
+    }
+
+    private void persist(BlockingQueue<Batch<PricePrediction>> in, Consumer<List<PricePrediction>> sink,
+                         Semaphore reorderWindow) throws InterruptedException {
+        StageCounter counter = counters[PERSIST];
+        PriorityQueue<Batch<PricePrediction>> pending =
+                new PriorityQueue<>((a, b) -> Long.compare(a.sequence(), b.sequence()));
+        long next = 0;
+        for (Batch<PricePrediction> batch = in.take(); batch != END; batch = in.take()) {
+            pending.add(batch);
+            while (!pending.isEmpty() && pending.peek().sequence() == next) {
+                Batch<PricePrediction> ready = pending.poll();
+                long busyStart = System.nanoTime();
+                if (!ready.items().isEmpty()) {
+                    sink.accept(ready.items());
+                }
+                counter.busyNanos.addAndGet(System.nanoTime() - busyStart);
+                counter.batches.incrementAndGet();
+                counter.recordsIn.addAndGet(ready.items().size());
+                counter.recordsOut.addAndGet(ready.items().size());
+                reorderWindow.release();
+                next++;
+            }
+        }
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException("Pipeline ended with " + pending.size() + " out-of-order batch(es)");
+        }
+    }
+
+    private static <T> void emit(StageCounter counter, int recordsIn, int recordsOut,
+                                 BlockingQueue<Batch<T>> out, Batch<T> batch) throws InterruptedException {
+        counter.batches.incrementAndGet();
+        counter.recordsIn.addAndGet(recordsIn);
+        counter.recordsOut.addAndGet(recordsOut);
+        long blockedStart = System.nanoTime();
+        out.put(batch);
+        counter.blockedNanos.addAndGet(System.nanoTime() - blockedStart);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void putEnd(BlockingQueue<Batch<T>> out) throws InterruptedException {
+        out.put((Batch<T>) END);
+    }
+
+    public PipelineStatistics getStatistics() {
+        List<PipelineStatistics.StageStatistics> stages = new ArrayList<>(counters.length);
+        for (int i = 0; i < counters.length; i++) {
+            StageCounter counter = counters[i];
+            stages.add(new PipelineStatistics.StageStatistics(
+                    STAGE_NAMES[i],
+                    counter.batches.get(),
+                    counter.recordsIn.get(),
+                    counter.recordsOut.get(),
+                    TimeUnit.NANOSECONDS.toMillis(counter.busyNanos.get()),
+                    TimeUnit.NANOSECONDS.toMillis(counter.blockedNanos.get())));
+        }
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        long elapsed = startNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+        return new PipelineStatistics(stages, shed.get(), elapsed);
+    }
+
+    private String progress() {
+        return String.format("Pipeline progress: loaded %d, validated %d, predicted %d, persisted %d",
+                counters[LOAD].recordsOut.get(),
+                counters[VALIDATE].recordsOut.get(),
+                counters[PREDICT].recordsOut.get(),
+                counters[PERSIST].recordsOut.get());
+    }
+}
@@ -2,29 +2,72 @@ package tn.isg.economics.service;
 
 import tn.isg.economics.ai.BaseAIModel;
 import tn.isg.economics.ai.LLMReportService;
+import tn.isg.economics.ai.ModelRegistry;
+import tn.isg.economics.ai.StreamedReport;
 import tn.isg.economics.model.ExportData;
 import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.model.PredictionStatus;
 import tn.isg.economics.model.ProductType;
 import tn.isg.economics.exception.PredictionException;
+import tn.isg.economics.util.AsyncLogger;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.logging.Logger;
 
 public class EconomicIntelligenceService {
-    private static final Logger log = Logger.getLogger(EconomicIntelligenceService.class.getName());
-    private final BaseAIModel predictionModel;
+    private static final AsyncLogger log = AsyncLogger.getLogger(EconomicIntelligenceService.class);
+    private static final Predicate<ExportData> VALID_EXPORT = export ->
+            export.pricePerTon() > 0 && export.volume() > 0;
+    private static final double HIGH_CONFIDENCE_THRESHOLD = 0.7;
+    private final ModelRegistry modelRegistry;
+    private final String modelProvider;
     private final LLMReportService reportService;
+    private volatile PredictionService predictionService;
 
     public EconomicIntelligenceService(BaseAIModel predictionModel, LLMReportService reportService) {
-        this.predictionModel = predictionModel;
+        this(ModelRegistry.of(predictionModel), ModelRegistry.providerOf(predictionModel), reportService);
+    }
+
+    public EconomicIntelligenceService(ModelRegistry modelRegistry, String modelProvider,
+                                       LLMReportService reportService) {
+        if (modelRegistry.getActiveModel(modelProvider) == null) {
+            throw new IllegalArgumentException("No model registered for provider: " + modelProvider);
+        }
+        this.modelRegistry = modelRegistry;
+        this.modelProvider = modelProvider;
         this.reportService = reportService;
+        this.predictionService = modelRegistry.predictionService(modelProvider);
+    }
+
+    public void enableAdmissionControl(AdmissionController controller,
+                                       AdmissionControlledPredictionService.SheddingPolicy policy,
+                                       PredictionService fallback) {
+        predictionService = new AdmissionControlledPredictionService(
+                modelRegistry.predictionService(modelProvider), controller, policy, fallback);
     }
 
     public BaseAIModel getPredictionModel() {
-        return predictionModel;
+        return modelRegistry.getActiveModel(modelProvider);
+    }
+
+    public ModelRegistry getModelRegistry() {
+        return modelRegistry;
     }
 
     public LLMReportService getReportService() {
@@ -35,39 +78,103 @@ public class EconomicIntelligenceService {
         if (exports == null || exports.isEmpty()) {
             throw new PredictionException("Export data list cannot be null or empty");
         }
-        log.info("Analyzing " + exports.size() + " export records");
+        log.info(() -> "Analyzing " + exports.size() + " export records");
         try {
-            Predicate<ExportData> isValidExport = export ->
-                    export.pricePerTon() > 0 && export.volume() > 0;
-            List<ExportData> validExports = exports.stream()
-                    .filter(isValidExport)
-                    .collect(Collectors.toList());
-            log.info("Valid exports after filtering: " + validExports.size());
-            if (validExports.isEmpty()) {
+            List<PricePrediction> highConfidencePredictions = new ArrayList<>();
+            PipelineStatistics statistics = newAnalysisPipeline().run(exports, highConfidencePredictions::addAll);
+            long validCount = statistics.stage("validate").recordsOut();
+            log.info(() -> "Valid exports after filtering: " + validCount);
+            if (validCount == 0) {
                 throw new PredictionException("No valid export data found after filtering");
             }
-            List<PricePrediction> predictions = predictionModel.predictBatch(validExports);
-            log.info("Generated " + predictions.size() + " predictions");
-            List<PricePrediction> highConfidencePredictions = predictions.stream()
-                    .filter(p -> p.confidence() > 0.7)
-                    .collect(Collectors.toList());
-            log.info("High-confidence predictions: " + highConfidencePredictions.size());
+            long predictionCount = statistics.stage("predict").recordsOut();
+            if (statistics.shedCount() == predictionCount) {
+                throw new PredictionException("Prediction service overloaded: request was shed");
+            }
+            log.info(() -> "Generated " + predictionCount + " predictions (" + statistics.shedCount() + " shed)");
+            log.info(() -> "High-confidence predictions: " + highConfidencePredictions.size());
             return highConfidencePredictions;
         } catch (Exception e) {
-            log.severe("Error during export analysis: " + e.getMessage());
+            log.severe(() -> "Error during export analysis: " + e.getMessage());
             throw new PredictionException("Failed to analyze exports", e);
         }
     }
 
+    // Streaming variant for sources too large to hold in memory: high-confidence predictions are handed
+    // to the sink batch by batch, in source order, while later batches are still being loaded and predicted
+    public PipelineStatistics analyzeExports(Iterable<ExportData> source, Consumer<List<PricePrediction>> sink)
+            throws PredictionException {
+        PipelineStatistics statistics = newAnalysisPipeline().run(source, sink);
+        log.info(() -> "Streaming analysis finished: " + statistics.stage("persist").recordsOut()
+                + " high-confidence predictions in " + statistics.elapsedMillis() + " ms");
+        return statistics;
+    }
+
+    // Live-feed entry point: subscribe the processor to an export publisher and subscribers to the processor.
+    // The processor reads the current prediction service per window, so hot swaps and admission control apply.
+    public PredictionProcessor createPredictionProcessor(int windowSize, Duration windowDuration,
+                                                         int subscriberBufferCapacity) {
+        return new PredictionProcessor(() -> predictionService, VALID_EXPORT, windowSize, windowDuration,
+                subscriberBufferCapacity);
+    }
+
+    public PredictionProcessor createPredictionProcessor() {
+        return createPredictionProcessor(AnalysisPipeline.DEFAULT_BATCH_SIZE, Duration.ofMillis(250),
+                Flow.defaultBufferSize());
+    }
+
+    private AnalysisPipeline newAnalysisPipeline() {
+        return new AnalysisPipeline(predictionService, VALID_EXPORT, HIGH_CONFIDENCE_THRESHOLD);
+    }
+
     public String generateIntelligenceReport(List<PricePrediction> predictions) {
         if (predictions == null || predictions.isEmpty()) {
             log.warning("No predictions provided for report generation");
             return "No predictions available to generate report.";
         }
-        log.info("Generating intelligence report for " + predictions.size() + " predictions");
+        log.info(() -> "Generating intelligence report for " + predictions.size() + " predictions");
         return reportService.generateMarketReport(predictions);
     }
 
+    public CompletableFuture<StreamedReport> streamIntelligenceReport(List<PricePrediction> predictions,
+                                                                      Consumer<String> onToken) {
+        if (predictions == null || predictions.isEmpty()) {
+            log.warning("No predictions provided for report generation");
+            String message = "No predictions available to generate report.";
+            onToken.accept(message);
+            return CompletableFuture.completedFuture(new StreamedReport(message, 1, 0, 0, true));
+        }
+        log.info(() -> "Streaming intelligence report for " + predictions.size() + " predictions");
+        return reportService.streamMarketReport(predictions, onToken);
+    }
+
+    public CompletableFuture<StreamedReport> streamIntelligenceReport(List<PricePrediction> predictions,
+                                                                      Writer writer) {
+        return streamIntelligenceReport(predictions, token -> {
+            try {
+                writer.write(token);
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Cold publisher: each subscriber triggers its own generation, paced by its demand
+    public Flow.Publisher<String> publishIntelligenceReport(List<PricePrediction> predictions) {
+        return subscriber -> {
+            SubmissionPublisher<String> publisher = new SubmissionPublisher<>();
+            publisher.subscribe(subscriber);
+            streamIntelligenceReport(predictions, publisher::submit).whenComplete((report, error) -> {
+                if (error != null) {
+                    publisher.closeExceptionally(error);
+                } else {
+                    publisher.close();
+                }
+            });
+        };
+    }
+
     public String generateSummary(List<PricePrediction> predictions) {
         if (predictions == null || predictions.isEmpty()) {
             return "No predictions available for summary.";
@@ -76,15 +183,67 @@ public class EconomicIntelligenceService {
         return reportService.generateSummaryReport(predictions);
     }
 
+    // Report and summary run side by side, so latency is the slower of the two, capped by the deadlines
+    public IntelligenceBriefing generateBriefing(List<PricePrediction> predictions,
+                                                 Duration perCallTimeout,
+                                                 Duration overallTimeout) {
+        if (predictions == null || predictions.isEmpty()) {
+            return new IntelligenceBriefing(generateIntelligenceReport(predictions),
+                    generateSummary(predictions), false, false, 0);
+        }
+        long start = System.nanoTime();
+        long callDeadline = start + Math.min(perCallTimeout.toNanos(), overallTimeout.toNanos());
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("briefing-", 0).factory());
+        try {
+            Future<String> report = executor.submit(() -> generateIntelligenceReport(predictions));
+            Future<String> summary = executor.submit(() -> generateSummary(predictions));
+            String reportText = awaitOrNull(report, callDeadline);
+            String summaryText = awaitOrNull(summary, callDeadline);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (reportText == null || summaryText == null) {
+                log.warning(() -> "Briefing deadline reached after " + elapsedMillis + " ms; using fallback for "
+                        + (reportText == null ? "report" : "") + (reportText == null && summaryText == null ? " and " : "")
+                        + (summaryText == null ? "summary" : ""));
+            }
+            return new IntelligenceBriefing(
+                    reportText != null ? reportText : reportService.generateFallbackReport(predictions),
+                    summaryText != null ? summaryText : reportService.generateFallbackSummary(predictions),
+                    reportText == null,
+                    summaryText == null,
+                    elapsedMillis
+            );
+        } finally {
+            // Do not wait for stragglers: interrupt them and return what we have
+            executor.shutdownNow();
+        }
+    }
+
+    private static String awaitOrNull(Future<String> future, long deadlineNanos) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            log.warning(() -> "Briefing part failed: " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
     public List<PricePrediction> filterByProduct(List<PricePrediction> predictions, ProductType productType) {
-        log.info("Filtering predictions by product: " + productType);
+        log.info(() -> "Filtering predictions by product: " + productType);
         return predictions.stream()
                 .filter(p -> p.productType() == productType)
                 .collect(Collectors.toList());
     }
 
     public List<PricePrediction> filterByConfidence(List<PricePrediction> predictions, double minConfidence) {
-        log.info("Filtering predictions with confidence >= " + minConfidence);
+        log.info(() -> "Filtering predictions with confidence >= " + minConfidence);
         return predictions.stream()
                 .filter(p -> p.confidence() >= minConfidence)
                 .collect(Collectors.toList());
@@ -135,8 +294,8 @@ public class EconomicIntelligenceService {
                 successfulPredictions,
                 avgConfidence * 100,
                 avgPrice,
-                predictionModel.getModelName(),
-                predictionModel.getModelAccuracy() * 100
+                getPredictionModel().getModelName(),
+                getPredictionModel().getModelAccuracy() * 100
         );
     }
 
@@ -147,10 +306,11 @@ public class EconomicIntelligenceService {
     }
 
     public boolean isModelReady() {
-        return predictionModel.isModelLoaded();
+        return getPredictionModel().isModelLoaded();
     }
 
     public String getServiceInfo() {
+        BaseAIModel predictionModel = getPredictionModel();
         return String.format(
                 """
                 === SERVICE INFORMATION ===
@@ -0,0 +1,376 @@
+package tn.isg.economics.service;
+
+import tn.isg.economics.exception.PredictionException;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.repository.DataRepository;
+import tn.isg.economics.util.AsyncLogger;
+import tn.isg.economics.util.CSVDataLoader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+// Watches a drop directory for new or growing CSV files and ingests only bytes not seen before.
+// Per-file offsets live in a checkpoint file that is rewritten atomically after every chunk, so a restart
+// resumes where the previous run stopped. Offsets only advance past complete lines. Each offset is tied to
+// the file's identity (its fileKey, or creation time where there is none), so a file replaced under the
+// same name, or one that shrinks below its offset, is read again from the start.
+// A crash between ingesting a chunk and writing its checkpoint replays that one chunk. A file that fails
+// is logged and retried on its next change; it never stops the daemon.
+public class IngestionDaemon implements AutoCloseable {
+    private static final AsyncLogger log = AsyncLogger.getLogger(IngestionDaemon.class);
+    private static final String CSV_SUFFIX = ".csv";
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+    private final Path directory;
+    private final Path checkpointFile;
+    private final DataRepository repository;
+    private final EconomicIntelligenceService intelligenceService;
+    private final int chunkBytes;
+    private final Map<String, Checkpoint> offsets = new TreeMap<>();
+    private final AtomicLong recordsIngested = new AtomicLong();
+    private final AtomicLong linesSkipped = new AtomicLong();
+    private final AtomicLong predictionsSaved = new AtomicLong();
+    private final AtomicLong chunksProcessed = new AtomicLong();
+    private volatile boolean running;
+    private volatile WatchService watchService;
+    private Thread worker;
+
+    // Stored as "identity|offset"; entries written before identities existed hold the bare offset
+    private record Checkpoint(String identity, long offset) {
+        static Checkpoint parse(String value) {
+            int separator = value.lastIndexOf('|');
+            return separator < 0
+                    ? new Checkpoint(null, Long.parseLong(value.trim()))
+                    : new Checkpoint(value.substring(0, separator), Long.parseLong(value.substring(separator + 1).trim()));
+        }
+
+        String format() {
+            return identity + "|" + offset;
+        }
+    }
+
+    public IngestionDaemon(Path directory, Path checkpointFile, DataRepository repository,
+                           EconomicIntelligenceService intelligenceService) throws IOException {
+        this(directory, checkpointFile, repository, intelligenceService, DEFAULT_CHUNK_BYTES);
+    }
+
+    public IngestionDaemon(Path directory, Path checkpointFile, DataRepository repository,
+                           EconomicIntelligenceService intelligenceService, int chunkBytes) throws IOException {
+        if (chunkBytes < 1024) {
+            throw new IllegalArgumentException("Chunk size must be at least 1024 bytes");
+        }
+        this.directory = directory;
+        this.checkpointFile = checkpointFile;
+        this.repository = repository;
+        this.intelligenceService = intelligenceService;
+        this.chunkBytes = chunkBytes;
+        Files.createDirectories(directory);
+        loadCheckpoint();
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        running = true;
+        worker = Thread.ofPlatform().name("csv-ingestion").start(this::watchLoop);
+        log.info(() -> "Watching " + directory.toAbsolutePath() + " for CSV drops");
+    }
+
+    private void watchLoop() {
+        try {
+            // Catch up on whatever arrived while the daemon was down
+            scanOnce();
+            while (running) {
+                WatchKey key = watchService.poll(1, TimeUnit.SECONDS);
+                if (key == null) {
+                    continue;
+                }
+                boolean rescan = false;
+                List<Path> changed = new ArrayList<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        rescan = true;
+                    } else if (event.context() instanceof Path name && isCsv(name) && !changed.contains(name)) {
+                        changed.add(name);
+                    }
+                }
+                key.reset();
+                if (rescan) {
+                    scanOnce();
+                } else {
+                    for (Path name : changed) {
+                        ingestQuietly(directory.resolve(name));
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // close() was called
+        } catch (IOException | RuntimeException e) {
+            log.severe(() -> "Ingestion daemon stopped: " + e.getMessage());
+        } finally {
+            running = false;
+        }
+    }
+
+    // Ingests pending bytes from every CSV file in the directory; returns the number of records ingested
+    public synchronized long scanOnce() throws IOException {
+        long ingested = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + CSV_SUFFIX)) {
+            List<Path> sorted = new ArrayList<>();
+            files.forEach(sorted::add);
+            sorted.sort(null);
+            for (Path file : sorted) {
+                ingested += ingestQuietly(file);
+            }
+        }
+        return ingested;
+    }
+
+    // One failing file (deleted mid-read, unwritable checkpoint, repository error) must not stop the others;
+    // its offset has not advanced past the failure, so the next change or scan retries it
+    private long ingestQuietly(Path file) {
+        try {
+            return ingest(file);
+        } catch (IOException | RuntimeException e) {
+            log.warning(() -> "Ingestion of " + file.getFileName() + " failed, will retry on its next change: "
+                    + e.getMessage());
+            return 0;
+        }
+    }
+
+    public synchronized long ingest(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        String name = file.getFileName().toString();
+        String identity = identityOf(file);
+        long ingested = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Checkpoint checkpoint = offsets.get(name);
+            long offset = 0;
+            if (checkpoint != null && checkpoint.identity() != null && !checkpoint.identity().equals(identity)) {
+                log.warning(() -> name + " was replaced since its checkpoint; reading it again from the start");
+            } else if (checkpoint != null && channel.size() < checkpoint.offset()) {
+                log.warning(() -> name + " shrank below its checkpoint; reading it again from the start");
+            } else if (checkpoint != null) {
+                offset = checkpoint.offset();
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(chunkBytes);
+            while (offset < channel.size()) {
+                buffer.clear();
+                int read = channel.read(buffer, offset);
+                if (read <= 0) {
+                    break;
+                }
+                int lastNewline = read - 1;
+                while (lastNewline >= 0 && buffer.get(lastNewline) != '\n') {
+                    lastNewline--;
+                }
+                if (lastNewline < 0) {
+                    if (read < chunkBytes) {
+                        // Incomplete last line: wait for the writer to finish it
+                        break;
+                    }
+                    long next = skipLine(channel, offset + read, buffer);
+                    if (next < 0) {
+                        // Not terminated yet; skipped once the writer finishes it
+                        break;
+                    }
+                    long skippedAt = offset;
+                    linesSkipped.incrementAndGet();
+                    log.warning(() -> "Skipped line longer than " + chunkBytes + " bytes in " + name + " at " + skippedAt);
+                    offset = next;
+                } else {
+                    ingested += process(name, offset == 0, buffer.array(), lastNewline + 1);
+                    offset += lastNewline + 1;
+                }
+                offsets.put(name, new Checkpoint(identity, offset));
+                saveCheckpoint();
+            }
+        }
+        return ingested;
+    }
+
+    // Offset just past the next '\n' at or after position, or -1 if the file ends first
+    private static long skipLine(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private static String identityOf(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Object fileKey = attributes.fileKey();
+        return fileKey != null ? fileKey.toString() : "created=" + attributes.creationTime().toMillis();
+    }
+
+    private long process(String name, boolean startOfFile, byte[] bytes, int length) {
+        List<ExportData> batch = new ArrayList<>();
+        int lineStart = 0;
+        boolean first = startOfFile;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8).strip();
+            lineStart = i + 1;
+            boolean header = first && line.regionMatches(true, 0, "date", 0, 4);
+            first = false;
+            if (line.isEmpty() || header) {
+                continue;
+            }
+            try {
+                batch.add(CSVDataLoader.parseCSVLine(line));
+            } catch (IllegalArgumentException e) {
+                linesSkipped.incrementAndGet();
+                log.sampled("ingestion.malformed", Level.WARNING, () -> "Skipped line in " + name + ": " + e.getMessage());
+            }
+        }
+        chunksProcessed.incrementAndGet();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // Records the repository refuses (e.g. duplicates of a re-delivered feed) are not predicted again
+        batch.removeIf(export -> !repository.saveExportData(export));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        recordsIngested.addAndGet(batch.size());
+        try {
+            List<PricePrediction> predictions = intelligenceService.analyzeExports(batch);
+            predictions.forEach(repository::savePrediction);
+            predictionsSaved.addAndGet(predictions.size());
+        } catch (PredictionException e) {
+            // The records are stored; their predictions are not retried, or the chunk would be reprocessed
+            log.warning(() -> "No predictions for " + batch.size() + " records from " + name + ": " + e.getMessage());
+        }
+        log.info(() -> "Ingested " + batch.size() + " records from " + name);
+        return batch.size();
+    }
+
+    private void loadCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(checkpointFile)) {
+            properties.load(input);
+        }
+        for (String name : properties.stringPropertyNames()) {
+            try {
+                offsets.put(name, Checkpoint.parse(properties.getProperty(name)));
+            } catch (NumberFormatException e) {
+                log.warning(() -> "Ignoring corrupt checkpoint entry for " + name);
+            }
+        }
+        log.info(() -> "Resuming from checkpoint with " + offsets.size() + " tracked file(s)");
+    }
+
+    private void saveCheckpoint() {
+        Properties properties = new Properties();
+        offsets.forEach((name, checkpoint) -> properties.setProperty(name, checkpoint.format()));
+        try {
+            Path parent = checkpointFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, checkpointFile.getFileName().toString(), ".tmp");
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                properties.store(output, "CSV ingestion offsets: file identity|bytes");
+            }
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write ingestion checkpoint " + checkpointFile, e);
+        }
+    }
+
+    private static boolean isCsv(Path name) {
+        return name.toString().endsWith(CSV_SUFFIX);
+    }
+
+    public synchronized Map<String, Long> getOffsets() {
+        Map<String, Long> copy = new TreeMap<>();
+        offsets.forEach((name, checkpoint) -> copy.put(name, checkpoint.offset()));
+        return copy;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getRecordsIngested() {
+        return recordsIngested.get();
+    }
+
+    public String getStatistics() {
+        return String.format(
+                """
+                === INGESTION DAEMON ===
+                Directory: %s
+                Tracked Files: %d
+                Chunks Processed: %d
+                Records Ingested: %d
+                Lines Skipped: %d
+                Predictions Saved: %d
+                """,
+                directory,
+                getOffsets().size(),
+                chunksProcessed.get(),
+                recordsIngested.get(),
+                linesSkipped.get(),
+                predictionsSaved.get()
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+        Thread current = worker;
+        if (current != null) {
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package tn.isg.economics.service;
+
+public record IntelligenceBriefing(
+        String report,
+        String summary,
+        boolean reportFromFallback,
+        boolean summaryFromFallback,
+        long elapsedMillis
+) {
+    public boolean isComplete() {
+        return !reportFromFallback && !summaryFromFallback;
+    }
+}
@@ -0,0 +1,52 @@
+package tn.isg.economics.service;
+
+import java.util.List;
+
+public record PipelineStatistics(
+        List<StageStatistics> stages,
+        long shedCount,
+        long elapsedMillis
+) {
+    public PipelineStatistics {
+        stages = List.copyOf(stages);
+    }
+
+    public record StageStatistics(
+            String name,
+            long batches,
+            long recordsIn,
+            long recordsOut,
+            long busyMillis,
+            long blockedMillis
+    ) {
+        // Records handled per second of the stage's own working time, excluding time spent waiting
+        public double getThroughput() {
+            return busyMillis == 0 ? 0.0 : recordsIn * 1000.0 / busyMillis;
+        }
+    }
+
+    public StageStatistics stage(String name) {
+        return stages.stream()
+                .filter(stage -> stage.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown pipeline stage: " + name));
+    }
+
+    public String toFormattedString() {
+        StringBuilder text = new StringBuilder("=== ANALYSIS PIPELINE ===\n");
+        text.append(String.format("%-10s %8s %10s %10s %9s %9s %12s%n",
+                "Stage", "Batches", "In", "Out", "Busy ms", "Blocked", "Records/s"));
+        for (StageStatistics stage : stages) {
+            text.append(String.format("%-10s %8d %10d %10d %9d %9d %12.0f%n",
+                    stage.name(),
+                    stage.batches(),
+                    stage.recordsIn(),
+                    stage.recordsOut(),
+                    stage.busyMillis(),
+                    stage.blockedMillis(),
+                    stage.getThroughput()));
+        }
+        text.append(String.format("Shed: %d%nElapsed: %d ms%n", shedCount, elapsedMillis));
+        return text.toString();
+    }
+}
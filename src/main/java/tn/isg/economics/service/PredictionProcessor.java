@@ -0,0 +1,268 @@
+package tn.isg.economics.service;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.util.AsyncLogger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Turns a live stream of shipments into predictions. Records are collected into windows that are sent to
+// predictBatch when full or when the oldest record has waited windowDuration. Upstream demand is capped at
+// one window and only renewed after the window has been handed to subscribers, whose buffers are bounded:
+// a slow subscriber blocks the hand-off, which stops further requests to the feed.
+public class PredictionProcessor implements Flow.Processor<ExportData, PricePrediction>, AutoCloseable {
+    private static final AsyncLogger log = AsyncLogger.getLogger(PredictionProcessor.class);
+    private final Supplier<PredictionService> predictionService;
+    private final Predicate<ExportData> validator;
+    private final int windowSize;
+    private final long windowNanos;
+    private final ExecutorService deliveryExecutor;
+    private final SubmissionPublisher<PricePrediction> downstream;
+    private final ScheduledExecutorService timer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<ExportData> window;
+    private long windowOpenedAt;
+    private long consumedSinceRequest;
+    private volatile Flow.Subscription upstream;
+    private volatile boolean demandStarted;
+    private volatile boolean terminated;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    public PredictionProcessor(Supplier<PredictionService> predictionService, Predicate<ExportData> validator,
+                               int windowSize, Duration windowDuration, int subscriberBufferCapacity) {
+        if (windowSize < 1 || windowDuration.isNegative() || windowDuration.isZero()) {
+            throw new IllegalArgumentException("Window size and duration must be positive");
+        }
+        this.predictionService = predictionService;
+        this.validator = validator;
+        this.windowSize = windowSize;
+        this.windowNanos = windowDuration.toNanos();
+        this.window = new ArrayList<>(windowSize);
+        this.deliveryExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("prediction-delivery-", 0).factory());
+        this.downstream = new SubmissionPublisher<>(deliveryExecutor, subscriberBufferCapacity);
+        this.timer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("prediction-window-timer").daemon(true).factory());
+        long checkNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), windowNanos / 4);
+        timer.scheduleAtFixedRate(this::flushIfExpired, checkNanos, checkNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        if (downstream.hasSubscribers()) {
+            startDemand();
+        }
+    }
+
+    // Nothing is requested from the feed until someone is listening, so no prediction is dropped
+    @Override
+    public void subscribe(Flow.Subscriber<? super PricePrediction> subscriber) {
+        downstream.subscribe(subscriber);
+        if (upstream != null) {
+            startDemand();
+        }
+    }
+
+    private void startDemand() {
+        lock.lock();
+        try {
+            if (demandStarted) {
+                return;
+            }
+            demandStarted = true;
+        } finally {
+            lock.unlock();
+        }
+        upstream.request(windowSize);
+    }
+
+    @Override
+    public void onNext(ExportData export) {
+        received.incrementAndGet();
+        long toRequest = 0;
+        RuntimeException failure = null;
+        lock.lock();
+        try {
+            if (terminated) {
+                return;
+            }
+            consumedSinceRequest++;
+            if (!validator.test(export)) {
+                rejected.incrementAndGet();
+            } else {
+                if (window.isEmpty()) {
+                    windowOpenedAt = System.nanoTime();
+                }
+                window.add(export);
+            }
+            if (window.size() >= windowSize) {
+                toRequest = flush();
+            } else if (window.isEmpty()) {
+                // Only rejected records since the last flush: hand their demand straight back
+                toRequest = consumedSinceRequest;
+                consumedSinceRequest = 0;
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            lock.unlock();
+        }
+        if (failure != null) {
+            fail(failure);
+            return;
+        }
+        requestMore(toRequest);
+    }
+
+    private void flushIfExpired() {
+        long toRequest = 0;
+        RuntimeException failure = null;
+        lock.lock();
+        try {
+            if (!terminated && !window.isEmpty() && System.nanoTime() - windowOpenedAt >= windowNanos) {
+                toRequest = flush();
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            lock.unlock();
+        }
+        if (failure != null) {
+            fail(failure);
+            return;
+        }
+        requestMore(toRequest);
+    }
+
+    // Caller holds the lock; returns how much demand to give back to the feed
+    private long flush() {
+        List<ExportData> batch = window;
+        window = new ArrayList<>(windowSize);
+        List<PricePrediction> predictions = predictionService.get().predictBatch(batch);
+        batches.incrementAndGet();
+        for (PricePrediction prediction : predictions) {
+            // Blocks while a subscriber's buffer is full
+            downstream.submit(prediction);
+            published.incrementAndGet();
+        }
+        long consumed = consumedSinceRequest;
+        consumedSinceRequest = 0;
+        return consumed;
+    }
+
+    // A failed prediction batch ends the stream: the feed is cancelled and subscribers receive the error
+    private void fail(RuntimeException failure) {
+        log.severe(() -> "Prediction window failed: " + failure.getMessage());
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        terminate(failure);
+    }
+
+    private void requestMore(long n) {
+        Flow.Subscription subscription = upstream;
+        if (n > 0 && subscription != null && !terminated) {
+            subscription.request(n);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.warning(() -> "Export feed failed: " + throwable.getMessage());
+        terminate(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        terminate(null);
+    }
+
+    private void terminate(Throwable cause) {
+        Throwable error = cause;
+        lock.lock();
+        try {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            if (!window.isEmpty()) {
+                flush();
+            }
+        } catch (RuntimeException e) {
+            error = error != null ? error : e;
+        } finally {
+            lock.unlock();
+            timer.shutdownNow();
+        }
+        if (error != null) {
+            downstream.closeExceptionally(error);
+        } else {
+            downstream.close();
+        }
+        deliveryExecutor.shutdown();
+    }
+
+    @Override
+    public void close() {
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        terminate(null);
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public String getStatistics() {
+        return String.format(
+                """
+                === PREDICTION STREAM ===
+                Received: %d
+                Rejected: %d
+                Batches: %d
+                Published: %d
+                Window: %d records / %d ms
+                """,
+                received.get(),
+                rejected.get(),
+                batches.get(),
+                published.get(),
+                windowSize,
+                TimeUnit.NANOSECONDS.toMillis(windowNanos)
+        );
+    }
+}
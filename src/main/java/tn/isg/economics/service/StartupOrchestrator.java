@@ -0,0 +1,160 @@
+package tn.isg.economics.service;
+
+import tn.isg.economics.ai.BaseAIModel;
+import tn.isg.economics.ai.LLMReportService;
+import tn.isg.economics.exception.ModelException;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.util.DataGenerator;
+import tn.isg.economics.util.AsyncLogger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+public class StartupOrchestrator {
+    private static final AsyncLogger log = AsyncLogger.getLogger(StartupOrchestrator.class);
+    private static final long WARMUP_SEED = 42L;
+    private static final LocalDate WARMUP_START_DATE = LocalDate.of(2023, 1, 1);
+    private final List<BaseAIModel> models = new ArrayList<>();
+    private final Supplier<LLMReportService> reportServiceFactory;
+    private final int warmupRounds;
+    private final int warmupBatchSize;
+    private volatile LLMReportService reportService;
+    private volatile StartupReport startupReport;
+
+    public StartupOrchestrator(Supplier<LLMReportService> reportServiceFactory) {
+        this(reportServiceFactory, 5, 200);
+    }
+
+    public StartupOrchestrator(Supplier<LLMReportService> reportServiceFactory,
+                               int warmupRounds,
+                               int warmupBatchSize) {
+        if (reportServiceFactory == null) {
+            throw new IllegalArgumentException("Report service factory cannot be null");
+        }
+        if (warmupRounds < 0 || warmupBatchSize < 1) {
+            throw new IllegalArgumentException("Warm-up rounds must be >= 0 and batch size >= 1");
+        }
+        this.reportServiceFactory = reportServiceFactory;
+        this.warmupRounds = warmupRounds;
+        this.warmupBatchSize = warmupBatchSize;
+    }
+
+    public StartupOrchestrator register(BaseAIModel model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null");
+        }
+        models.add(model);
+        return this;
+    }
+
+    public StartupReport start() throws ModelException {
+        if (isReady()) {
+            return startupReport;
+        }
+        log.info(() -> "Starting " + models.size() + " model(s) and LLM client in parallel");
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Long> llmInit = executor.submit(() -> {
+                long llmStart = System.nanoTime();
+                reportService = reportServiceFactory.get();
+                return elapsedMillis(llmStart);
+            });
+            Map<String, Future<Long>> loads = new LinkedHashMap<>();
+            for (BaseAIModel model : models) {
+                loads.put(model.getModelName(), executor.submit(() -> {
+                    long loadStart = System.nanoTime();
+                    model.loadModel();
+                    return elapsedMillis(loadStart);
+                }));
+            }
+            Map<String, Long> modelLoadMillis = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<Long>> load : loads.entrySet()) {
+                modelLoadMillis.put(load.getKey(),
+                        await(load.getValue(), "Failed to load model " + load.getKey()));
+            }
+            long loadPhaseMillis = elapsedMillis(start);
+            // Warm-up only needs the models, so it overlaps with a slow LLM client init
+            long warmupStart = System.nanoTime();
+            int warmupPredictions = warmUp(executor);
+            long warmupMillis = elapsedMillis(warmupStart);
+            long llmInitMillis = await(llmInit, "Failed to initialize LLM client");
+            startupReport = new StartupReport(
+                    modelLoadMillis,
+                    loadPhaseMillis,
+                    llmInitMillis,
+                    warmupMillis,
+                    warmupPredictions,
+                    elapsedMillis(start)
+            );
+        }
+        log.info(() -> "System ready in " + startupReport.totalMillis() + " ms");
+        return startupReport;
+    }
+
+    private int warmUp(ExecutorService executor) throws ModelException {
+        if (warmupRounds == 0 || models.isEmpty()) {
+            return 0;
+        }
+        // Seeded and silent; per-prediction logs are already sampled, so the models log as usual
+        List<ExportData> synthetic = DataGenerator.generateExports(WARMUP_SEED, warmupBatchSize,
+                WARMUP_START_DATE, WARMUP_START_DATE.plusYears(2));
+        List<Future<Long>> runs = new ArrayList<>();
+        for (BaseAIModel model : models) {
+            runs.add(executor.submit(() -> {
+                for (int round = 0; round < warmupRounds; round++) {
+                    model.predictBatch(synthetic);
+                }
+                return 0L;
+            }));
+        }
+        for (int i = 0; i < runs.size(); i++) {
+            await(runs.get(i), "Warm-up failed for model " + models.get(i).getModelName());
+        }
+        return warmupRounds * synthetic.size() * models.size();
+    }
+
+    private static long await(Future<Long> future, String errorMessage) throws ModelException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModelException(errorMessage + ": interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ModelException modelException) {
+                throw modelException;
+            }
+            throw new ModelException(errorMessage + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public boolean isReady() {
+        return startupReport != null;
+    }
+
+    public StartupReport getStartupReport() {
+        return startupReport;
+    }
+
+    public LLMReportService getReportService() {
+        return reportService;
+    }
+
+    public List<BaseAIModel> getModels() {
+        return List.copyOf(models);
+    }
+
+    public void unloadAll() {
+        models.forEach(BaseAIModel::unloadModel);
+    }
+}
@@ -0,0 +1,39 @@
+package tn.isg.economics.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public record StartupReport(
+        Map<String, Long> modelLoadMillis,
+        long loadPhaseMillis,
+        long llmInitMillis,
+        long warmupMillis,
+        int warmupPredictions,
+        long totalMillis
+) {
+    public StartupReport {
+        modelLoadMillis = Collections.unmodifiableMap(new LinkedHashMap<>(modelLoadMillis));
+    }
+
+    public String toFormattedString() {
+        StringBuilder models = new StringBuilder();
+        modelLoadMillis.forEach((name, millis) ->
+                models.append(String.format("  %-25s %6d ms%n", name, millis)));
+        return String.format("""
+            === STARTUP REPORT ===
+            Model loading (parallel): %6d ms
+            %sLLM client init:          %6d ms
+            Warm-up (%d predictions): %6d ms
+            Total until ready:        %6d ms
+            ======================
+            """,
+                loadPhaseMillis,
+                models,
+                llmInitMillis,
+                warmupPredictions,
+                warmupMillis,
+                totalMillis
+        );
+    }
+}
@@ -0,0 +1,189 @@
+package tn.isg.economics.util;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+// Front for java.util.logging on hot paths: the level check runs on the caller, message suppliers
+// are evaluated by a background drain thread, and records cross over through a lock-free ring buffer
+public final class AsyncLogger {
+    private static final int BUFFER_CAPACITY = Integer.getInteger("tn.isg.economics.log.bufferSize", 8192);
+    private static final int SAMPLES_PER_SECOND = Integer.getInteger("tn.isg.economics.log.samplesPerSecond", 10);
+    private static final MpscRingBuffer<Entry> buffer = new MpscRingBuffer<>(BUFFER_CAPACITY);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final Map<String, AsyncLogger> loggers = new ConcurrentHashMap<>();
+    private static final Thread drainer;
+    // Set while the drainer is parked or about to park; producers read it after publishing their record
+    private static volatile boolean drainerParked;
+
+    static {
+        drainer = Thread.ofPlatform().daemon().name("async-log-drainer").unstarted(AsyncLogger::drainLoop);
+        drainer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(AsyncLogger::flush, "async-log-flush"));
+    }
+
+    private final Logger delegate;
+    private final Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+    private AsyncLogger(Logger delegate) {
+        this.delegate = delegate;
+    }
+
+    public static AsyncLogger getLogger(Class<?> type) {
+        return loggers.computeIfAbsent(type.getName(), name -> new AsyncLogger(Logger.getLogger(name)));
+    }
+
+    public boolean isLoggable(Level level) {
+        return delegate.isLoggable(level);
+    }
+
+    public void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    public void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public void fine(Supplier<String> message) {
+        log(Level.FINE, message);
+    }
+
+    public void warning(String message) {
+        log(Level.WARNING, message);
+    }
+
+    public void warning(Supplier<String> message) {
+        log(Level.WARNING, message);
+    }
+
+    public void severe(String message) {
+        log(Level.SEVERE, message);
+    }
+
+    public void severe(Supplier<String> message) {
+        log(Level.SEVERE, message);
+    }
+
+    public void log(Level level, String message) {
+        if (delegate.isLoggable(level)) {
+            enqueue(new Entry(this, level, null, message, System.currentTimeMillis(), 0));
+        }
+    }
+
+    public void log(Level level, Supplier<String> message) {
+        if (delegate.isLoggable(level)) {
+            enqueue(new Entry(this, level, message, null, System.currentTimeMillis(), 0));
+        }
+    }
+
+    // At most SAMPLES_PER_SECOND records per key and second; the next emitted one reports what was skipped
+    public void sampled(String key, Level level, Supplier<String> message) {
+        if (!delegate.isLoggable(level)) {
+            return;
+        }
+        int suppressed = samplers.computeIfAbsent(key, k -> new Sampler()).acquire();
+        if (suppressed >= 0) {
+            enqueue(new Entry(this, level, message, null, System.currentTimeMillis(), suppressed));
+        }
+    }
+
+    private static void enqueue(Entry entry) {
+        if (!buffer.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+        if (drainerParked) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public static void flush() {
+        drain();
+    }
+
+    // Blocks while there is nothing to publish, so an idle or disabled logger costs no wakeups.
+    // The flag is raised before the emptiness check and read by producers after their offer, so either
+    // the drainer sees the new record or the producer sees the flag and unparks it.
+    private static void drainLoop() {
+        while (true) {
+            if (drain() > 0) {
+                continue;
+            }
+            drainerParked = true;
+            if (isIdle()) {
+                LockSupport.park();
+            }
+            drainerParked = false;
+        }
+    }
+
+    private static synchronized boolean isIdle() {
+        return buffer.isEmpty() && dropped.get() == 0;
+    }
+
+    private static synchronized int drain() {
+        int drained = 0;
+        Entry entry;
+        while ((entry = buffer.poll()) != null) {
+            entry.publish();
+            drained++;
+        }
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            Logger.getLogger(AsyncLogger.class.getName())
+                    .warning("Log buffer full: dropped " + lost + " record(s)");
+        }
+        return drained;
+    }
+
+    private record Entry(AsyncLogger logger, Level level, Supplier<String> supplier, String message,
+                         long timestamp, int suppressed) {
+        void publish() {
+            String text;
+            try {
+                text = supplier != null ? supplier.get() : message;
+            } catch (RuntimeException e) {
+                text = "<log message failed: " + e + ">";
+            }
+            if (suppressed > 0) {
+                text = text + " [+" + suppressed + " similar suppressed]";
+            }
+            LogRecord record = new LogRecord(level, text);
+            record.setLoggerName(logger.delegate.getName());
+            record.setSourceClassName(logger.delegate.getName());
+            record.setInstant(Instant.ofEpochMilli(timestamp));
+            logger.delegate.log(record);
+        }
+    }
+
+    private static final class Sampler {
+        private final AtomicLong window = new AtomicLong();
+        private final AtomicInteger emitted = new AtomicInteger();
+        private final AtomicInteger suppressed = new AtomicInteger();
+
+        // Returns the number of suppressed records to report, or -1 if this one is sampled out
+        int acquire() {
+            long second = System.nanoTime() / 1_000_000_000L;
+            long current = window.get();
+            if (second != current && window.compareAndSet(current, second)) {
+                emitted.set(0);
+            }
+            if (emitted.incrementAndGet() <= SAMPLES_PER_SECOND) {
+                return suppressed.getAndSet(0);
+            }
+            suppressed.incrementAndGet();
+            return -1;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.util.List;
 
 public class CSVDataLoader {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final CountryDictionary COUNTRIES = CountryDictionary.global();
 
     public static List<ExportData> loadFromCSV(String filename) throws IOException {
         if (!Files.exists(Paths.get(filename))) {
@@ -58,7 +59,7 @@ public class CSVDataLoader {
         return exports;
     }
 
-    private static ExportData parseCSVLine(String line) {
+    public static ExportData parseCSVLine(String line) {
         String[] parts = line.split(",");
         if (parts.length != 6) {
             throw new IllegalArgumentException(
@@ -70,7 +71,7 @@ public class CSVDataLoader {
             ProductType product = ProductType.valueOf(parts[1].trim().toUpperCase());
             double pricePerTon = Double.parseDouble(parts[2].trim());
             double volume = Double.parseDouble(parts[3].trim());
-            String country = parts[4].trim();
+            String country = COUNTRIES.canonical(parts[4].trim());
             MarketIndicator indicator = MarketIndicator.valueOf(parts[5].trim().toUpperCase());
             return new ExportData(date, product, pricePerTon, volume, country, indicator);
         } catch (Exception e) {
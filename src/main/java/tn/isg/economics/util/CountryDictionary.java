@@ -0,0 +1,81 @@
+package tn.isg.economics.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Maps destination country names to compact int ids, ignoring case: "france" and "FRANCE" share the
+// id of whichever spelling was seen first, and that spelling is the one canonical String kept for it.
+// Ids are only meaningful inside this JVM; files and the shard protocol keep storing names.
+// ExportData allows a null country, so id 0 is reserved for it and nameOf(0) gives null back.
+public final class CountryDictionary {
+    public static final int NO_COUNTRY = 0;
+    private static final CountryDictionary GLOBAL = new CountryDictionary();
+    // Exact spellings already resolved, so the common path skips case folding
+    private final ConcurrentHashMap<String, Integer> bySpelling = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> byFoldedName = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private volatile int size = NO_COUNTRY + 1;
+
+    public static CountryDictionary global() {
+        return GLOBAL;
+    }
+
+    public int idOf(String name) {
+        if (name == null) {
+            return NO_COUNTRY;
+        }
+        Integer id = bySpelling.get(name);
+        return id != null ? id : register(name);
+    }
+
+    private synchronized int register(String name) {
+        String folded = fold(name);
+        Integer id = byFoldedName.get(folded);
+        if (id == null) {
+            id = size;
+            String[] current = names;
+            if (id == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[id] = name;
+            names = current;
+            byFoldedName.put(folded, id);
+            size = id + 1;
+        }
+        bySpelling.put(name, id);
+        return id;
+    }
+
+    // Id of a known country, or -1; never registers the name
+    public int find(String name) {
+        if (name == null) {
+            return NO_COUNTRY;
+        }
+        Integer id = bySpelling.get(name);
+        if (id == null) {
+            id = byFoldedName.get(fold(name));
+        }
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown country id: " + id);
+        }
+        return names[id];
+    }
+
+    // The single shared String for this country
+    public String canonical(String name) {
+        return nameOf(idOf(name));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static String fold(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+}
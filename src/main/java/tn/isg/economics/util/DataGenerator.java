@@ -5,11 +5,19 @@ import tn.isg.economics.model.MarketIndicator;
 import tn.isg.economics.model.ProductType;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 public class DataGenerator {
     private static final Random random = new Random();
+    static final int DEFAULT_CHUNK_SIZE = 65_536;
     private static final String[] DESTINATION_COUNTRIES = {
             "France",      // Tunisia's #1 export partner
             "Italy",       // Major olive oil importer
@@ -22,6 +30,10 @@ public class DataGenerator {
             "Russia",      // Citrus fruits
             "USA"          // Dates
     };
+    private static final CountryDictionary COUNTRIES = CountryDictionary.global();
+    private static final int[] COUNTRY_IDS = Arrays.stream(DESTINATION_COUNTRIES)
+            .mapToInt(COUNTRIES::idOf)
+            .toArray();
 
     public static List<ExportData> generateExports(int count) {
         if (count < 1) {
@@ -45,76 +57,148 @@ public class DataGenerator {
         return exports;
     }
 
-    private static ExportData generateSingleExport(LocalDate date) {
+    // Seeded, parallel variant for large datasets. Chunk i always draws from the i-th split of
+    // new SplittableRandom(seed) and chunks are concatenated in order, so the same seed, chunk size
+    // and date window give the same rows whatever the core count. Dates are uniform over the window.
+    public static List<ExportData> generateExports(long seed, int count, LocalDate startDate, LocalDate endDate) {
+        return generateExports(seed, count, DEFAULT_CHUNK_SIZE, startDate, endDate);
+    }
+
+    public static List<ExportData> generateExports(long seed, int count, int chunkSize,
+                                                   LocalDate startDate, LocalDate endDate) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be at least 1");
+        }
+        int chunks = chunkCount(count, chunkSize);
+        long days = windowDays(startDate, endDate);
+        SplittableRandom[] randoms = chunkRandoms(seed, chunks);
+        int threads = Math.min(chunks, Runtime.getRuntime().availableProcessors());
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("generator-", 0).daemon(true).factory())) {
+            List<CompletableFuture<List<ExportData>>> parts = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int rows = (int) Math.min(chunkSize, count - (long) chunk * chunkSize);
+                SplittableRandom rng = randoms[chunk];
+                parts.add(CompletableFuture.supplyAsync(() -> {
+                    List<ExportData> part = new ArrayList<>(rows);
+                    generateChunk(rng, rows, startDate, days, part::add);
+                    return part;
+                }, pool));
+            }
+            List<ExportData> exports = new ArrayList<>(count);
+            for (CompletableFuture<List<ExportData>> part : parts) {
+                exports.addAll(part.join());
+            }
+            return exports;
+        }
+    }
+
+    static int chunkCount(long count, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        return Math.toIntExact((count + chunkSize - 1) / chunkSize);
+    }
+
+    static long windowDays(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date");
+        }
+        return java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
+    }
+
+    // Split sequentially from one root, so stream i depends only on the seed and i
+    static SplittableRandom[] chunkRandoms(long seed, int chunks) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            randoms[i] = root.split();
+        }
+        return randoms;
+    }
+
+    static void generateChunk(SplittableRandom rng, int rows, LocalDate startDate, long days,
+                              Consumer<ExportData> sink) {
+        for (int i = 0; i < rows; i++) {
+            sink.accept(generateSingleExport(rng, startDate.plusDays(rng.nextLong(days))));
+        }
+    }
+
+    static ExportData generateSingleExport(LocalDate date) {
+        return generateSingleExport(random, date);
+    }
+
+    static ExportData generateSingleExport(RandomGenerator rng, LocalDate date) {
         // Pick random product type
         ProductType[] products = ProductType.values();
-        ProductType product = products[random.nextInt(products.length)];
+        ProductType product = products[rng.nextInt(products.length)];
         // Get realistic price for this product (with some variation)
-        double basePrice = getRealisticPrice(product);
-        double priceVariation = (random.nextDouble() - 0.5) * 0.3; // ±15% variation
+        double basePrice = getRealisticPrice(rng, product);
+        double priceVariation = (rng.nextDouble() - 0.5) * 0.3; // ±15% variation
         double price = basePrice * (1 + priceVariation);
         price = Math.round(price * 100.0) / 100.0; // Round to 2 decimals
         // Generate realistic volume (tons)
-        double volume = generateRealisticVolume(product);
+        double volume = generateRealisticVolume(rng, product);
         // Pick random destination country
-        String country = getRandomCountry();
+        String country = getRandomCountry(rng);
         // Determine market indicator based on price and season
-        MarketIndicator indicator = getMarketIndicator(product, price, date);
+        MarketIndicator indicator = getMarketIndicator(rng, product, price, date);
         return new ExportData(date, product, price, volume, country, indicator);
     }
 
-    private static double getRealisticPrice(ProductType product) {
+    private static double getRealisticPrice(RandomGenerator rng, ProductType product) {
         return switch (product) {
             case OLIVE_OIL ->
                 // Olive oil: Premium product, 3000-4500 TND/ton
-                    3000 + random.nextDouble() * 1500;
+                    3000 + rng.nextDouble() * 1500;
             case DATES ->
                 // Dates: High-value export, 2000-3500 TND/ton
-                    2000 + random.nextDouble() * 1500;
+                    2000 + rng.nextDouble() * 1500;
             case CITRUS_FRUITS ->
                 // Citrus: Medium value, 1500-2500 TND/ton
-                    1500 + random.nextDouble() * 1000;
+                    1500 + rng.nextDouble() * 1000;
             case WHEAT ->
                 // Wheat: Commodity price, 800-1200 TND/ton
-                    800 + random.nextDouble() * 400;
+                    800 + rng.nextDouble() * 400;
             case TOMATOES ->
                 // Tomatoes: Fresh produce, 800-1500 TND/ton
-                    800 + random.nextDouble() * 700;
+                    800 + rng.nextDouble() * 700;
             case PEPPERS ->
                 // Peppers: Fresh produce, 1000-1800 TND/ton
-                    1000 + random.nextDouble() * 800;
+                    1000 + rng.nextDouble() * 800;
         };
     }
 
-    private static double generateRealisticVolume(ProductType product) {
+    private static double generateRealisticVolume(RandomGenerator rng, ProductType product) {
         double volume = switch (product) {
             case OLIVE_OIL ->
                 // Olive oil: Medium shipments, 50-300 tons
-                    50 + random.nextDouble() * 250;
+                    50 + rng.nextDouble() * 250;
             case DATES ->
                 // Dates: Medium shipments, 30-150 tons
-                    30 + random.nextDouble() * 120;
+                    30 + rng.nextDouble() * 120;
             case CITRUS_FRUITS ->
                 // Citrus: Large shipments, 100-500 tons
-                    100 + random.nextDouble() * 400;
+                    100 + rng.nextDouble() * 400;
             case WHEAT ->
                 // Wheat: Very large shipments, 500-2000 tons
-                    500 + random.nextDouble() * 1500;
+                    500 + rng.nextDouble() * 1500;
             case TOMATOES ->
                 // Tomatoes: Large shipments, 150-600 tons
-                    150 + random.nextDouble() * 450;
+                    150 + rng.nextDouble() * 450;
             case PEPPERS ->
                 // Peppers: Medium shipments, 50-250 tons
-                    50 + random.nextDouble() * 200;
+                    50 + rng.nextDouble() * 200;
         };
         return Math.round(volume * 10.0) / 10.0; // Round to 1 decimal
     }
 
-    private static String getRandomCountry() {
-        return DESTINATION_COUNTRIES[random.nextInt(DESTINATION_COUNTRIES.length)];
+    private static String getRandomCountry(RandomGenerator rng) {
+        return COUNTRIES.nameOf(COUNTRY_IDS[rng.nextInt(COUNTRY_IDS.length)]);
     }
 
-    private static MarketIndicator getMarketIndicator(ProductType product, double price, LocalDate date) {
+    private static MarketIndicator getMarketIndicator(RandomGenerator rng, ProductType product, double price,
+                                                      LocalDate date) {
         // Get average price for this product
         double avgPrice = getAveragePrice(product);
         // Calculate price deviation from average
@@ -132,7 +216,7 @@ public class DataGenerator {
         } else {
             // Some products are naturally more volatile (citrus, tomatoes)
             if (product == ProductType.CITRUS_FRUITS || product == ProductType.TOMATOES) {
-                return random.nextBoolean() ? MarketIndicator.VOLATILE : MarketIndicator.STABLE;
+                return rng.nextBoolean() ? MarketIndicator.VOLATILE : MarketIndicator.STABLE;
             } else {
                 return MarketIndicator.STABLE;
             }
@@ -187,12 +271,12 @@ public class DataGenerator {
             ProductType product = (productType != null) ?
                     productType :
                     ProductType.values()[random.nextInt(ProductType.values().length)];
-            double price = getRealisticPrice(product);
+            double price = getRealisticPrice(random, product);
             double priceVariation = (random.nextDouble() - 0.5) * 0.3;
             price = Math.round(price * (1 + priceVariation) * 100.0) / 100.0;
-            double volume = generateRealisticVolume(product);
-            String country = getRandomCountry();
-            MarketIndicator indicator = getMarketIndicator(product, price, randomDate);
+            double volume = generateRealisticVolume(random, product);
+            String country = getRandomCountry(random);
+            MarketIndicator indicator = getMarketIndicator(random, product, price, randomDate);
             exports.add(new ExportData(randomDate, product, price, volume, country, indicator));
         }
         System.out.println("✓ Generated " + count + " exports" +
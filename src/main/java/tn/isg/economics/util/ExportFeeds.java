@@ -0,0 +1,235 @@
+package tn.isg.economics.util;
+
+import tn.isg.economics.model.ExportData;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+// Cold Flow publishers of export records. Each subscriber gets its own source, read on its own virtual
+// thread only as fast as it requests, so a slow subscriber never makes a feed buffer unboundedly.
+public final class ExportFeeds {
+    private static final AsyncLogger logger = AsyncLogger.getLogger(ExportFeeds.class);
+
+    private ExportFeeds() {
+    }
+
+    // Blocking pull source; null signals the end of the feed
+    @FunctionalInterface
+    private interface Source extends AutoCloseable {
+        ExportData next() throws Exception;
+
+        // Narrowed from AutoCloseable's Exception: closing only releases IO resources and never waits
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    // Synthetic shipments, one every interval (Duration.ZERO for as fast as demanded), count of -1 for endless
+    public static Flow.Publisher<ExportData> generator(long count, Duration interval) {
+        long intervalMillis = interval.toMillis();
+        return pull("generator", () -> {
+            AtomicLong remaining = new AtomicLong(count);
+            return () -> {
+                if (count >= 0 && remaining.getAndDecrement() <= 0) {
+                    return null;
+                }
+                if (intervalMillis > 0) {
+                    Thread.sleep(intervalMillis);
+                }
+                return DataGenerator.generateSingleExport(LocalDate.now());
+            };
+        });
+    }
+
+    // CSV lines from a TCP connection, standing in for the customs feed
+    public static Flow.Publisher<ExportData> socket(String host, int port) {
+        return lines("socket " + host + ":" + port, () -> new Socket(host, port).getInputStream());
+    }
+
+    // CSV lines from any stream; the stream is opened per subscriber and closed when the feed ends
+    public static Flow.Publisher<ExportData> lines(String name, Callable<InputStream> opener) {
+        return pull(name, () -> {
+            InputStream input = opener.call();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            return new Source() {
+                @Override
+                public ExportData next() throws IOException {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        ExportData export = parse(name, line);
+                        if (export != null) {
+                            return export;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    reader.close();
+                }
+            };
+        });
+    }
+
+    // Follows a CSV file like tail -f: waits for appended lines and never completes on its own.
+    // Only complete lines are parsed; a truncated file is read again from the start.
+    public static Flow.Publisher<ExportData> fileTail(Path file, Duration pollInterval) {
+        long pollMillis = Math.max(1, pollInterval.toMillis());
+        return pull("tail " + file, () -> {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            ByteBuffer buffer = ByteBuffer.allocate(8192).flip();
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            return new Source() {
+                @Override
+                public ExportData next() throws IOException, InterruptedException {
+                    while (true) {
+                        while (buffer.hasRemaining()) {
+                            byte b = buffer.get();
+                            if (b != '\n') {
+                                line.write(b);
+                                continue;
+                            }
+                            ExportData export = parse(file.toString(), line.toString(StandardCharsets.UTF_8));
+                            line.reset();
+                            if (export != null) {
+                                return export;
+                            }
+                        }
+                        if (channel.size() < channel.position()) {
+                            channel.position(0);
+                            line.reset();
+                        }
+                        buffer.clear();
+                        int read = channel.read(buffer);
+                        buffer.flip();
+                        if (read <= 0) {
+                            Thread.sleep(pollMillis);
+                        }
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    channel.close();
+                }
+            };
+        });
+    }
+
+    // Blank lines, the header and malformed lines are skipped
+    private static ExportData parse(String feed, String line) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.regionMatches(true, 0, "date", 0, 4)) {
+            return null;
+        }
+        try {
+            return CSVDataLoader.parseCSVLine(trimmed);
+        } catch (IllegalArgumentException e) {
+            logger.sampled("feeds.malformed", Level.WARNING, () -> "Skipped malformed line from " + feed
+                    + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Flow.Publisher<ExportData> pull(String name, Callable<Source> opener) {
+        return subscriber -> {
+            PullSubscription subscription = new PullSubscription(subscriber, opener);
+            subscriber.onSubscribe(subscription);
+            Thread.ofVirtual().name("feed-" + name).start(subscription::run);
+        };
+    }
+
+    private static final class PullSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ExportData> subscriber;
+        private final Callable<Source> opener;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition demandAvailable = lock.newCondition();
+        private long demand;
+        private volatile boolean cancelled;
+        private volatile Thread worker;
+
+        PullSubscription(Flow.Subscriber<? super ExportData> subscriber, Callable<Source> opener) {
+            this.subscriber = subscriber;
+            this.opener = opener;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested " + n + " items; must be positive"));
+                return;
+            }
+            lock.lock();
+            try {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                demandAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Thread current = worker;
+            // Interrupting a virtual thread also unblocks it from socket reads
+            if (current != null && current != Thread.currentThread()) {
+                current.interrupt();
+            }
+        }
+
+        void run() {
+            worker = Thread.currentThread();
+            try (Source source = opener.call()) {
+                while (!cancelled) {
+                    awaitDemand();
+                    if (cancelled) {
+                        return;
+                    }
+                    ExportData export = source.next();
+                    if (export == null) {
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(export);
+                }
+            } catch (Exception e) {
+                if (!cancelled) {
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        private void awaitDemand() throws InterruptedException {
+            lock.lock();
+            try {
+                while (demand == 0 && !cancelled) {
+                    demandAvailable.await();
+                }
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -127,11 +127,26 @@ public class StatisticsCalculator {
         if (exports == null || exports.isEmpty()) {
             return new HashMap<>();
         }
-        return exports.stream()
-                .collect(Collectors.groupingBy(
-                        ExportData::destinationCountry,
-                        Collectors.summingDouble(ExportData::volume)
-                ));
+        // Sum into a dense array indexed by country id, then name the non-empty slots
+        CountryDictionary countries = CountryDictionary.global();
+        double[] volumes = new double[countries.size() + 16];
+        boolean[] seen = new boolean[volumes.length];
+        for (ExportData export : exports) {
+            int id = countries.idOf(export.destinationCountry());
+            if (id >= volumes.length) {
+                volumes = Arrays.copyOf(volumes, Math.max(id + 1, volumes.length * 2));
+                seen = Arrays.copyOf(seen, volumes.length);
+            }
+            volumes[id] += export.volume();
+            seen[id] = true;
+        }
+        Map<String, Double> totals = new HashMap<>();
+        for (int id = 0; id < volumes.length; id++) {
+            if (seen[id]) {
+                totals.put(countries.nameOf(id), volumes[id]);
+            }
+        }
+        return totals;
     }
 
     public static Map<ProductType, Double> getTotalVolumeByProduct(List<ExportData> exports) {
@@ -0,0 +1,262 @@
+package tn.isg.economics.util;
+
+import tn.isg.economics.model.ExportData;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generates synthetic exports straight into a file without holding the dataset in memory.
+// Chunks follow the same plan as DataGenerator.generateExports(seed, ...), so a given seed and chunk
+// size produce the same rows, and the same bytes for a given format. Chunks are generated and encoded
+// in parallel; the calling thread writes them in order and keeps at most maxInFlight encoded chunks
+// waiting, which bounds memory to roughly maxInFlight chunk buffers.
+public final class StreamingDataGenerator {
+    public static final String CSV_HEADER = "date,product,pricePerTon,volume,destinationCountry,marketIndicator";
+    // Estimated bytes per row, used only to size a chunk's first buffer; growth beyond it is amortized
+    private static final int CSV_ROW_ESTIMATE = 80;
+    private static final int BINARY_ROW_ESTIMATE = 48;
+    private static final int MAX_INITIAL_CAPACITY = 64 * 1024 * 1024;
+
+    public enum Format {
+        CSV, NDJSON,
+        // Per row: epoch day (long), product ordinal (byte), price (double), volume (double),
+        // country (short length + UTF-8), indicator ordinal (byte); big-endian, no header
+        BINARY
+    }
+
+    public record GenerationReport(Path file, Format format, long rows, long bytes, Duration elapsed) {
+        public double rowsPerSecond() {
+            double seconds = elapsed.toNanos() / 1e9;
+            return seconds == 0 ? 0.0 : rows / seconds;
+        }
+
+        public String toFormattedString() {
+            return String.format(
+                    """
+                    === GENERATION REPORT ===
+                    File: %s (%s)
+                    Rows: %d
+                    Size: %.1f MB
+                    Elapsed: %.2f s
+                    Throughput: %.0f rows/s
+                    """,
+                    file,
+                    format,
+                    rows,
+                    bytes / (1024.0 * 1024.0),
+                    elapsed.toNanos() / 1e9,
+                    rowsPerSecond()
+            );
+        }
+    }
+
+    private StreamingDataGenerator() {
+    }
+
+    public static GenerationReport generate(Path file, Format format, long seed, long rows,
+                                            LocalDate startDate, LocalDate endDate) throws IOException {
+        return generate(file, format, seed, rows, DataGenerator.DEFAULT_CHUNK_SIZE, startDate, endDate,
+                Duration.ofSeconds(1));
+    }
+
+    // progressInterval null disables the progress lines
+    public static GenerationReport generate(Path file, Format format, long seed, long rows, int chunkSize,
+                                            LocalDate startDate, LocalDate endDate,
+                                            Duration progressInterval) throws IOException {
+        if (rows < 1) {
+            throw new IllegalArgumentException("Rows must be at least 1");
+        }
+        int chunks = DataGenerator.chunkCount(rows, chunkSize);
+        long days = DataGenerator.windowDays(startDate, endDate);
+        SplittableRandom[] randoms = DataGenerator.chunkRandoms(seed, chunks);
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxInFlight = threads * 2;
+        AtomicLong rowsWritten = new AtomicLong();
+        long start = System.nanoTime();
+        long bytes = 0;
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        ScheduledExecutorService reporter = progressInterval == null ? null
+                : Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("generation-progress").daemon(true).factory());
+        if (reporter != null) {
+            reporter.scheduleAtFixedRate(() -> printProgress(rowsWritten.get(), rows, start),
+                    progressInterval.toMillis(), progressInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("generator-", 0).daemon(true).factory());
+             OutputStream out = Files.newOutputStream(temp)) {
+            if (format == Format.CSV) {
+                byte[] header = (CSV_HEADER + "\n").getBytes(StandardCharsets.UTF_8);
+                out.write(header);
+                bytes += header.length;
+            }
+            ArrayDeque<CompletableFuture<byte[]>> inFlight = new ArrayDeque<>(maxInFlight);
+            int nextChunk = 0;
+            while (nextChunk < chunks || !inFlight.isEmpty()) {
+                while (nextChunk < chunks && inFlight.size() < maxInFlight) {
+                    int chunkRows = (int) Math.min(chunkSize, rows - (long) nextChunk * chunkSize);
+                    SplittableRandom rng = randoms[nextChunk];
+                    randoms[nextChunk++] = null;
+                    inFlight.addLast(CompletableFuture.supplyAsync(
+                            () -> encodeChunk(rng, chunkRows, startDate, days, format), pool));
+                }
+                byte[] encoded = join(inFlight.removeFirst());
+                out.write(encoded);
+                bytes += encoded.length;
+                rowsWritten.addAndGet(Math.min(chunkSize, rows - rowsWritten.get()));
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new GenerationReport(file, format, rows, bytes, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> chunk) throws IOException {
+        try {
+            return chunk.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void printProgress(long written, long total, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf(Locale.US, "  %,d / %,d rows (%.1f%%) - %,.0f rows/s%n",
+                written, total, written * 100.0 / total, seconds == 0 ? 0.0 : written / seconds);
+    }
+
+    private static byte[] encodeChunk(SplittableRandom rng, int rows, LocalDate startDate, long days,
+                                      Format format) {
+        if (format == Format.BINARY) {
+            ChunkBuffer buffer = new ChunkBuffer(initialCapacity(rows, BINARY_ROW_ESTIMATE));
+            DataGenerator.generateChunk(rng, rows, startDate, days, export -> buffer.putRecord(export));
+            return buffer.toByteArray();
+        }
+        StringBuilder text = new StringBuilder(initialCapacity(rows, CSV_ROW_ESTIMATE));
+        DataGenerator.generateChunk(rng, rows, startDate, days, format == Format.CSV
+                ? export -> appendCsv(text, export)
+                : export -> appendJson(text, export));
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // In long so large chunk sizes cannot overflow into a negative capacity
+    private static int initialCapacity(int rows, int bytesPerRow) {
+        return (int) Math.min((long) rows * bytesPerRow, MAX_INITIAL_CAPACITY);
+    }
+
+    // Same columns and formatting as DataExporter.exportToCSV
+    private static void appendCsv(StringBuilder line, ExportData export) {
+        line.append(export.date()).append(',')
+                .append(export.productType().name()).append(',');
+        appendTwoDecimals(line, export.pricePerTon());
+        line.append(',');
+        appendTwoDecimals(line, export.volume());
+        line.append(',').append(export.destinationCountry()).append(',')
+                .append(export.indicator().name()).append('\n');
+    }
+
+    // Field names and number formatting as Jackson writes the ExportData record
+    private static void appendJson(StringBuilder line, ExportData export) {
+        line.append("{\"date\":\"").append(export.date())
+                .append("\",\"productType\":\"").append(export.productType().name())
+                .append("\",\"pricePerTon\":").append(export.pricePerTon())
+                .append(",\"volume\":").append(export.volume())
+                .append(",\"destinationCountry\":\"");
+        appendJsonString(line, export.destinationCountry());
+        line.append("\",\"indicator\":\"").append(export.indicator().name()).append("\"}\n");
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+    }
+
+    // Generated prices and volumes are already rounded to at most two decimals, so rounding the scaled
+    // value gives the same digits as %.2f
+    private static void appendTwoDecimals(StringBuilder line, double value) {
+        long cents = Math.round(value * 100);
+        line.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    // Growable big-endian buffer for one binary chunk
+    private static final class ChunkBuffer {
+        private ByteBuffer buffer;
+
+        ChunkBuffer(int initialCapacity) {
+            buffer = ByteBuffer.allocate(Math.max(64, initialCapacity));
+        }
+
+        void putRecord(ExportData export) {
+            byte[] country = export.destinationCountry().getBytes(StandardCharsets.UTF_8);
+            ensure(Long.BYTES + 1 + 2 * Double.BYTES + Short.BYTES + country.length + 1);
+            buffer.putLong(export.date().toEpochDay());
+            buffer.put((byte) export.productType().ordinal());
+            buffer.putDouble(export.pricePerTon());
+            buffer.putDouble(export.volume());
+            buffer.putShort((short) country.length);
+            buffer.put(country);
+            buffer.put((byte) export.indicator().ordinal());
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+}
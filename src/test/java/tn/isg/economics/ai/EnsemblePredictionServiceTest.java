@@ -0,0 +1,105 @@
+package tn.isg.economics.ai;
+
+import org.junit.jupiter.api.Test;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.model.ProductType;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnsemblePredictionServiceTest {
+    private static final List<ExportData> INPUTS = List.of(new ExportData(
+            LocalDate.of(2024, 1, 1), ProductType.OLIVE_OIL, 4000.0, 100.0, "France", MarketIndicator.STABLE));
+
+    // Answers after a delay, or fails after it
+    private static final class ScriptedModel extends BaseAIModel {
+        private final long delayMillis;
+        private final boolean fails;
+
+        ScriptedModel(String name, long delayMillis, boolean fails) {
+            super(name);
+            this.delayMillis = delayMillis;
+            this.fails = fails;
+            this.isLoaded = true;
+        }
+
+        @Override
+        public void loadModel() {
+            isLoaded = true;
+        }
+
+        @Override
+        public void unloadModel() {
+            isLoaded = false;
+        }
+
+        @Override
+        public PricePrediction predictPrice(ExportData input) {
+            return predictBatch(List.of(input)).get(0);
+        }
+
+        @Override
+        public List<PricePrediction> predictBatch(List<ExportData> inputs) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (fails) {
+                throw new IllegalStateException(modelName + " failed");
+            }
+            return inputs.stream()
+                    .map(input -> new PricePrediction(input.date(), input.productType(), input.pricePerTon(),
+                            0.9, modelName, PredictionStatus.COMPLETED))
+                    .toList();
+        }
+    }
+
+    @Test
+    void memberFailsPromptlyWhenSpareFailsBeforeSlowPrimary() {
+        ScriptedModel primary = new ScriptedModel("primary", 300, true);
+        ScriptedModel spare = new ScriptedModel("spare", 20, true);
+        try (EnsemblePredictionService ensemble = new EnsemblePredictionService(
+                List.of(primary), Duration.ofSeconds(10), Duration.ofMillis(10), 1).withSpare(primary, spare)) {
+            long start = System.nanoTime();
+            List<PricePrediction> predictions = ensemble.predictBatch(INPUTS);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals(PredictionStatus.FAILED, predictions.get(0).status());
+            assertEquals(0, ensemble.getDeadlineMisses());
+            assertEquals(1, ensemble.getHedgesIssued());
+            assertTrue(elapsedMillis < 5_000, "waited " + elapsedMillis + " ms for a member that had failed");
+        }
+    }
+
+    @Test
+    void spareAnswersWhenPrimaryFails() {
+        ScriptedModel primary = new ScriptedModel("primary", 20, true);
+        ScriptedModel spare = new ScriptedModel("spare", 20, false);
+        try (EnsemblePredictionService ensemble = new EnsemblePredictionService(
+                List.of(primary), Duration.ofSeconds(10), Duration.ofSeconds(5), 1).withSpare(primary, spare)) {
+            List<PricePrediction> predictions = ensemble.predictBatch(INPUTS);
+
+            assertEquals(PredictionStatus.COMPLETED, predictions.get(0).status());
+            assertEquals(1, ensemble.getHedgesIssued());
+        }
+    }
+
+    @Test
+    void slowSpareStillAnswersAfterPrimaryFails() {
+        ScriptedModel primary = new ScriptedModel("primary", 50, true);
+        ScriptedModel spare = new ScriptedModel("spare", 200, false);
+        try (EnsemblePredictionService ensemble = new EnsemblePredictionService(
+                List.of(primary), Duration.ofSeconds(10), Duration.ofMillis(10), 1).withSpare(primary, spare)) {
+            List<PricePrediction> predictions = ensemble.predictBatch(INPUTS);
+
+            assertEquals(PredictionStatus.COMPLETED, predictions.get(0).status());
+            assertEquals(0, ensemble.getDeadlineMisses());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package tn.isg.economics.ai;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OllamaHttpClientTest {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(10);
+
+    // Collects tokens and completes with the final text or the error
+    private static final class Collector implements StreamingResponseHandler<AiMessage> {
+        private final List<String> tokens = new ArrayList<>();
+        private final CompletableFuture<String> done = new CompletableFuture<>();
+
+        @Override
+        public void onNext(String token) {
+            tokens.add(token);
+        }
+
+        @Override
+        public void onComplete(Response<AiMessage> response) {
+            done.complete(response.content().text());
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            done.completeExceptionally(error);
+        }
+    }
+
+    @Test
+    void streamsTokensAndCompletesWithFullText() throws Exception {
+        try (OllamaStubServer stub = new OllamaStubServer(0, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0.0).start()) {
+            OllamaHttpClient client = new OllamaHttpClient(stub.getBaseUrl(), "llama2", 0.7,
+                    CONNECT_TIMEOUT, READ_TIMEOUT);
+            Collector collector = new Collector();
+            client.generateStreaming("prompt", collector);
+
+            String text = collector.done.get(10, TimeUnit.SECONDS);
+            assertTrue(collector.tokens.size() > 1);
+            assertEquals(String.join("", collector.tokens), text);
+            assertEquals(client.generate("prompt"), text);
+        }
+    }
+
+    @Test
+    void reportsBackendErrorsToTheHandler() throws Exception {
+        try (OllamaStubServer stub = new OllamaStubServer(0, Duration.ZERO, Duration.ZERO, Duration.ZERO, 1.0).start()) {
+            OllamaHttpClient client = new OllamaHttpClient(stub.getBaseUrl(), "llama2", 0.7,
+                    CONNECT_TIMEOUT, READ_TIMEOUT);
+            Collector collector = new Collector();
+            client.generateStreaming("prompt", collector);
+
+            Throwable error = collector.done.handle((text, failure) -> failure).get(10, TimeUnit.SECONDS);
+            assertInstanceOf(IOException.class, error);
+            assertTrue(collector.tokens.isEmpty());
+        }
+    }
+
+    @Test
+    void failsFastWhenNothingListens() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        OllamaHttpClient client = new OllamaHttpClient("http://127.0.0.1:" + port, "llama2", 0.7,
+                CONNECT_TIMEOUT, READ_TIMEOUT);
+        Collector collector = new Collector();
+        long start = System.nanoTime();
+        client.generateStreaming("prompt", collector);
+
+        Throwable error = collector.done.handle((text, failure) -> failure).get(10, TimeUnit.SECONDS);
+        assertInstanceOf(IOException.class, error);
+        assertFalse(Duration.ofNanos(System.nanoTime() - start).compareTo(READ_TIMEOUT) >= 0);
+    }
+
+    @Test
+    void reportsATimeoutWhenTheStreamStallsMidway() throws Exception {
+        Duration readTimeout = Duration.ofMillis(500);
+        try (OllamaStubServer stub = new OllamaStubServer(0, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0.0)
+                .stallAfter(3).start()) {
+            OllamaHttpClient client = new OllamaHttpClient(stub.getBaseUrl(), "llama2", 0.7,
+                    CONNECT_TIMEOUT, readTimeout);
+            Collector collector = new Collector();
+            client.generateStreaming("prompt", collector);
+
+            Throwable error = collector.done.handle((text, failure) -> failure).get(10, TimeUnit.SECONDS);
+            assertInstanceOf(HttpTimeoutException.class, error);
+            assertEquals(3, collector.tokens.size());
+        }
+    }
+
+    @Test
+    void boundsTheBlockingResponseByTheReadTimeout() throws Exception {
+        Duration readTimeout = Duration.ofMillis(500);
+        try (OllamaStubServer stub = new OllamaStubServer(0, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0.0)
+                .stallAfter(0).start()) {
+            OllamaHttpClient client = new OllamaHttpClient(stub.getBaseUrl(), "llama2", 0.7,
+                    CONNECT_TIMEOUT, readTimeout);
+            long start = System.nanoTime();
+            assertThrows(HttpTimeoutException.class, () -> client.generate("prompt"));
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+        }
+    }
+}
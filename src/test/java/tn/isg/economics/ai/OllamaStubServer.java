@@ -0,0 +1,192 @@
+package tn.isg.economics.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Local stand-in for the Ollama HTTP API (/api/tags, /api/generate, /api/chat) with configurable
+// latency, per-token delay and error rate, for load-testing the report pipeline without a model
+public class OllamaStubServer implements AutoCloseable {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String CANNED_REPORT = "Tunisian agricultural export prices remain stable overall. "
+            + "Olive oil and dates show the strongest demand while citrus prices soften seasonally. "
+            + "Exporters should lock in forward contracts for high-confidence products and diversify "
+            + "destinations to limit currency and logistics risk.";
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Duration baseLatency;
+    private final Duration jitter;
+    private final Duration perTokenDelay;
+    private final double errorRate;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile int stallAfterTokens = -1;
+
+    public OllamaStubServer(int port, Duration baseLatency, Duration jitter, Duration perTokenDelay,
+                            double errorRate) throws IOException {
+        if (errorRate < 0.0 || errorRate > 1.0) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1");
+        }
+        this.baseLatency = baseLatency;
+        this.jitter = jitter;
+        this.perTokenDelay = perTokenDelay;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ollama-stub-", 0).factory());
+        server.setExecutor(executor);
+        server.createContext("/api/tags", this::handleTags);
+        server.createContext("/api/generate", exchange -> handleCompletion(exchange, false));
+        server.createContext("/api/chat", exchange -> handleCompletion(exchange, true));
+    }
+
+    // Stops sending after the given number of tokens (blocking responses: before any) until closed,
+    // to simulate a backend that hangs mid-response
+    public OllamaStubServer stallAfter(int tokens) {
+        this.stallAfterTokens = tokens;
+        return this;
+    }
+
+    public OllamaStubServer start() {
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handleTags(HttpExchange exchange) throws IOException {
+        Map<String, Object> model = Map.of("name", "llama2:latest", "model", "llama2:latest");
+        send(exchange, 200, objectMapper.writeValueAsBytes(Map.of("models", List.of(model))));
+    }
+
+    private void handleCompletion(HttpExchange exchange, boolean chat) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, new byte[0]);
+                return;
+            }
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            String modelName = request.path("model").asText("llama2");
+            // Ollama streams unless told otherwise
+            boolean stream = request.path("stream").asBoolean(true);
+            sleep(baseLatency.toMillis() + (jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1)));
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                send(exchange, 500, objectMapper.writeValueAsBytes(Map.of("error", "simulated backend failure")));
+                return;
+            }
+            String[] tokens = CANNED_REPORT.split("(?<= )");
+            if (!stream) {
+                if (stallAfterTokens >= 0) {
+                    stall();
+                }
+                sleep(perTokenDelay.toMillis() * tokens.length);
+                send(exchange, 200, objectMapper.writeValueAsBytes(chunk(modelName, chat, CANNED_REPORT, true)));
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream body = exchange.getResponseBody();
+            for (int i = 0; i < tokens.length; i++) {
+                if (i == stallAfterTokens) {
+                    stall();
+                }
+                String token = tokens[i];
+                sleep(perTokenDelay.toMillis());
+                writeLine(body, chunk(modelName, chat, token, false));
+            }
+            writeLine(body, chunk(modelName, chat, "", true));
+        }
+    }
+
+    private static Map<String, Object> chunk(String modelName, boolean chat, String text, boolean done) {
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("model", modelName);
+        if (chat) {
+            chunk.put("message", Map.of("role", "assistant", "content", text));
+        } else {
+            chunk.put("response", text);
+        }
+        chunk.put("done", done);
+        if (done) {
+            chunk.put("prompt_eval_count", 0);
+            chunk.put("eval_count", 0);
+        }
+        return chunk;
+    }
+
+    private static void writeLine(OutputStream body, Map<String, Object> chunk) throws IOException {
+        body.write(objectMapper.writeValueAsBytes(chunk));
+        body.write('\n');
+        body.flush();
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] payload) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, payload.length == 0 ? -1 : payload.length);
+        if (payload.length > 0) {
+            exchange.getResponseBody().write(payload);
+        }
+        exchange.close();
+    }
+
+    // Interrupted by close()
+    private static void stall() {
+        sleep(TimeUnit.MINUTES.toMillis(10));
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // Usage: OllamaStubServer [port] [latencyMs] [jitterMs] [perTokenMs] [errorRate]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 11434;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        long jitterMillis = args.length > 2 ? Long.parseLong(args[2]) : 100;
+        long perToken = args.length > 3 ? Long.parseLong(args[3]) : 20;
+        double errorRate = args.length > 4 ? Double.parseDouble(args[4]) : 0.0;
+        OllamaStubServer stub = new OllamaStubServer(port, Duration.ofMillis(latency), Duration.ofMillis(jitterMillis),
+                Duration.ofMillis(perToken), errorRate).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        System.out.printf("Ollama stub listening on %s (latency %d±%d ms, %d ms/token, error rate %.0f%%)%n",
+                stub.getBaseUrl(), latency, jitterMillis, perToken, errorRate * 100);
+    }
+}
@@ -0,0 +1,166 @@
+package tn.isg.economics.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.DataGenerator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LogStructuredDataRepositoryTest {
+    // Long enough that the scheduler never snapshots on its own during a test
+    private static final Duration NO_SCHEDULED_SNAPSHOT = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredDataRepository open() throws IOException {
+        return new LogStructuredDataRepository(directory, NO_SCHEDULED_SNAPSHOT, true);
+    }
+
+    private static List<ExportData> exports(long seed, int count) {
+        return DataGenerator.generateExports(seed, count, LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31));
+    }
+
+    private static List<PricePrediction> predictions(int count) {
+        List<PricePrediction> predictions = new ArrayList<>(count);
+        ProductType[] products = ProductType.values();
+        for (int i = 0; i < count; i++) {
+            predictions.add(new PricePrediction(LocalDate.of(2024, 1, 1).plusDays(i), products[i % products.length],
+                    1000.0 + i, 0.5 + (i % 50) / 100.0, "test-model", PredictionStatus.COMPLETED));
+        }
+        return predictions;
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    @Test
+    void recoversEverySavedRecordFromTheLog() throws IOException {
+        List<ExportData> exports = exports(1L, 500);
+        List<PricePrediction> predictions = predictions(200);
+        try (LogStructuredDataRepository repository = open()) {
+            assertEquals(500, repository.saveAllExportData(exports));
+            assertEquals(200, repository.saveAllPredictions(predictions));
+        }
+
+        try (LogStructuredDataRepository repository = open()) {
+            assertEquals(exports, repository.getAllExportData());
+            assertEquals(predictions, repository.getAllPredictions());
+        }
+    }
+
+    @Test
+    void ignoresATornTailAndKeepsWritingAfterIt() throws IOException {
+        List<ExportData> exports = exports(2L, 300);
+        try (LogStructuredDataRepository repository = open()) {
+            repository.saveAllExportData(exports);
+        }
+        // A crash mid-write leaves a frame header promising more payload than was written
+        Path log = files("wal-").getLast();
+        ByteBuffer torn = ByteBuffer.allocate(WriteAheadLog.FRAME_HEADER + 10).putInt(100).putInt(0);
+        Files.write(log, torn.array(), StandardOpenOption.APPEND);
+
+        List<ExportData> more = exports(3L, 50);
+        try (LogStructuredDataRepository repository = open()) {
+            assertEquals(exports, repository.getAllExportData());
+            repository.saveAllExportData(more);
+        }
+
+        List<ExportData> expected = new ArrayList<>(exports);
+        expected.addAll(more);
+        try (LogStructuredDataRepository repository = open()) {
+            assertEquals(expected, repository.getAllExportData());
+        }
+    }
+
+    @Test
+    void stopsReplayAtACorruptFrame() throws IOException {
+        List<ExportData> exports = exports(4L, 10);
+        try (LogStructuredDataRepository repository = open()) {
+            repository.saveAllExportData(exports);
+        }
+        // Flip one payload byte of the last frame so its checksum no longer matches
+        Path log = files("wal-").getLast();
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(log, bytes);
+
+        try (LogStructuredDataRepository repository = open()) {
+            assertEquals(exports.subList(0, 9), repository.getAllExportData());
+        }
+    }
+
+    @Test
+    void replaysOnlyTheLogWrittenAfterTheSnapshot() throws IOException {
+        List<ExportData> beforeSnapshot = exports(5L, 400);
+        List<ExportData> afterSnapshot = exports(6L, 100);
+        List<PricePrediction> predictions = predictions(50);
+        try (LogStructuredDataRepository repository = open()) {
+            repository.saveAllExportData(beforeSnapshot);
+            repository.saveAllPredictions(predictions);
+            repository.snapshot();
+            repository.saveAllExportData(afterSnapshot);
+        }
+        assertEquals(1, files("snapshot-").size());
+
+        List<ExportData> expected = new ArrayList<>(beforeSnapshot);
+        expected.addAll(afterSnapshot);
+        try (LogStructuredDataRepository repository = open()) {
+            assertEquals(expected, repository.getAllExportData());
+            assertEquals(predictions, repository.getAllPredictions());
+            String statistics = repository.getPersistenceStatistics();
+            assertTrue(statistics.contains("Recovery: 450 from snapshot + 100 from log"), statistics);
+        }
+    }
+
+    @Test
+    void replaysAClearRecordedAfterTheSnapshot() throws IOException {
+        try (LogStructuredDataRepository repository = open()) {
+            repository.saveAllExportData(exports(7L, 100));
+            repository.snapshot();
+            repository.clearAll();
+        }
+
+        try (LogStructuredDataRepository repository = open()) {
+            assertTrue(repository.getAllExportData().isEmpty());
+            assertFalse(files("snapshot-").isEmpty());
+        }
+    }
+
+    @Test
+    void logStopsAcceptingAppendsAfterAFailedWrite() throws IOException {
+        // Every write to /dev/full fails with "no space left on device"
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.exists(full));
+        Files.createSymbolicLink(WriteAheadLog.fileFor(directory, 1), full);
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, 1, false)) {
+            long sequence = log.append(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+            assertThrows(UncheckedIOException.class, () -> log.awaitDurable(sequence));
+            assertThrows(UncheckedIOException.class, log::ensureWritable);
+            assertThrows(UncheckedIOException.class, () -> log.append(ByteBuffer.wrap(new byte[]{4})));
+            assertEquals(0, log.getGroupCommits());
+        }
+    }
+}
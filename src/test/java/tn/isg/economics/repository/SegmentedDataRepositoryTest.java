@@ -0,0 +1,108 @@
+package tn.isg.economics.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.DataGenerator;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentedDataRepositoryTest {
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+    private static final Comparator<ExportData> ORDER = Comparator.comparing(ExportData::date)
+            .thenComparing(ExportData::productType)
+            .thenComparingDouble(ExportData::pricePerTon)
+            .thenComparingDouble(ExportData::volume)
+            .thenComparing(ExportData::destinationCountry);
+
+    // Small segments and no background merge, so each test decides when segments are merged
+    private final SegmentedDataRepository repository = new SegmentedDataRepository(16, 256, Duration.ofHours(1));
+
+    @AfterEach
+    void close() {
+        repository.close();
+    }
+
+    private static List<ExportData> sorted(List<ExportData> exports) {
+        List<ExportData> copy = new ArrayList<>(exports);
+        copy.sort(ORDER);
+        return copy;
+    }
+
+    private long statistic(String name) {
+        Matcher matcher = Pattern.compile(name + ": (\\d+)").matcher(repository.getSegmentStatistics());
+        assertTrue(matcher.find(), name);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static ExportData export(LocalDate date, double price, double volume) {
+        return new ExportData(date, ProductType.values()[0], price, volume, "France", MarketIndicator.values()[0]);
+    }
+
+    @Test
+    void dateRangeQueriesSkipSegmentsOutsideTheRange() {
+        // Saved in date order, each sealed segment covers only a few days of its month
+        List<ExportData> exports = sorted(DataGenerator.generateExports(1L, 5000, START, END));
+        repository.saveAllExportData(exports);
+
+        LocalDate from = LocalDate.of(2024, 3, 10);
+        LocalDate to = LocalDate.of(2024, 3, 12);
+        List<ExportData> expected = exports.stream()
+                .filter(export -> !export.date().isBefore(from) && !export.date().isAfter(to))
+                .toList();
+        assertEquals(sorted(expected), sorted(repository.getExportDataByDateRange(from, to)));
+        assertTrue(statistic("Segments Pruned") > 0);
+    }
+
+    @Test
+    void mergingKeepsEveryRecordAndReducesSegments() {
+        List<ExportData> exports = DataGenerator.generateExports(2L, 5000, START, END);
+        repository.saveAllExportData(exports);
+        long before = statistic("Sealed Segments");
+
+        int merged = repository.mergeSmallSegments();
+
+        assertTrue(merged > 0);
+        assertEquals(0, statistic("Buffered Exports"));
+        assertTrue(statistic("Sealed Segments") < before);
+        assertEquals(sorted(exports), sorted(repository.getAllExportData()));
+        assertEquals(exports.size(), repository.getExportCount());
+    }
+
+    @Test
+    void nanValuesDoNotHideTheRestOfTheirSegment() {
+        LocalDate day = LocalDate.of(2024, 1, 15);
+        List<ExportData> exports = new ArrayList<>();
+        exports.add(export(day, Double.NaN, Double.NaN));
+        for (int i = 0; i < 40; i++) {
+            exports.add(export(day, 1000 + i, 10 + i));
+        }
+        repository.saveAllExportData(exports);
+        repository.mergeSmallSegments();
+
+        assertEquals(11, repository.findByPriceRange(1010, 1020).size());
+        assertEquals(6, repository.findByVolumeRange(10, 15).size());
+    }
+
+    @Test
+    void savesAfterAClearAreKept() {
+        repository.saveAllExportData(DataGenerator.generateExports(3L, 1000, START, END));
+        repository.clearAll();
+        assertEquals(0, repository.getExportCount());
+
+        List<ExportData> again = DataGenerator.generateExports(4L, 100, START, END);
+        repository.saveAllExportData(again);
+        repository.mergeSmallSegments();
+        assertEquals(sorted(again), sorted(repository.getAllExportData()));
+    }
+}